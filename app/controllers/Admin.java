@@ -3,7 +3,6 @@ package controllers;
 import interfaces.AppConstants;
 import interfaces.CheckAccess;
 
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -15,10 +14,13 @@ import models.Bracket;
 import models.Confirmation;
 import models.ConfirmationType;
 import models.Game;
+import models.JobLease;
+import models.JobStatistic;
 import models.Pagination;
 import models.Playday;
 import models.Settings;
 import models.User;
+import models.UserSummary;
 import notifiers.Mails;
 
 import org.apache.commons.lang.StringUtils;
@@ -29,9 +31,15 @@ import play.i18n.Messages;
 import play.jobs.Job;
 import play.jobs.JobsPlugin;
 import play.mvc.With;
+import providers.CachingResultsProvider;
 import utils.AppUtils;
+import utils.CacheUtils;
+import utils.JobUtils;
+import utils.LeaseUtils;
+import utils.PasswordUtils;
 import utils.ValidationUtils;
 import utils.ViewUtils;
+import utils.WSUtils;
 
 @With(Auth.class)
 @CheckAccess("admin")
@@ -47,7 +55,7 @@ public class Admin extends Root implements AppConstants {
 
 	@Transactional(readOnly=true)
 	public static void users() {
-		final List<User> users = User.find("SELECT u FROM User u ORDER BY username ASC").fetch();
+		final List<UserSummary> users = AppUtils.getUserSummaries(null, "u.username ASC", 0);
 		render(users);
 	}
 
@@ -165,6 +173,8 @@ public class Admin extends Root implements AppConstants {
 					message = Messages.get("info.change.activate", user.getEmail());
 				}
 				user._save();
+				Auth.Security.invalidate(user);
+				CacheUtils.bumpDataVersion();
 				flash.put("infomessage", message);
 				Logger.info("User " + user.getEmail() + " has been " + activate + " - by " + connectedUser.getEmail());
 			} else {
@@ -196,6 +206,7 @@ public class Admin extends Root implements AppConstants {
 					user.setAdmin(true);
 				}
 				user._save();
+				Auth.Security.invalidate(user);
 				flash.put("infomessage", message);
 				Logger.info("User " + user.getEmail() + " " + admin + " - by " + connectedUser.getEmail());
 			} else {
@@ -216,6 +227,7 @@ public class Admin extends Root implements AppConstants {
 		if (user != null) {
 			if (!connectedUser.equals(user)) {
 				final String username = user.getEmail();
+				Auth.Security.invalidate(user);
 				user._delete();
 				flash.put("infomessage", Messages.get("info.delete.user", username));
 				Logger.info("User " + username + " has been deleted - by " + connectedUser.getEmail());
@@ -235,7 +247,14 @@ public class Admin extends Root implements AppConstants {
 	@Transactional(readOnly=true)
 	public static void jobs() {
 		final List<Job> jobs = JobsPlugin.scheduledJobs;
-		render(jobs);
+		final int hashingQueue = PasswordUtils.getQueueSize();
+		final int hashingActive = PasswordUtils.getActiveCount();
+		final long hashingRejected = PasswordUtils.getRejectedCount();
+		final List<JobStatistic> statistics = JobUtils.getStatistics();
+		final JobLease leader = LeaseUtils.getLeader();
+		final String node = JobUtils.getNodeId();
+		final CachingResultsProvider cache = WSUtils.getCache();
+		render(jobs, hashingQueue, hashingActive, hashingRejected, statistics, leader, node, cache);
 	}
 
 	@Transactional(readOnly=true)
@@ -270,12 +289,7 @@ public class Admin extends Root implements AppConstants {
 		validation.required(message);
 
 		if (!validation.hasErrors()) {
-			final List<String> recipients = new ArrayList<String>();
-			final List<User> users = AppUtils.getAllActiveUsers();
-			for (final User user : users) {
-				recipients.add(user.getEmail());
-			}
-
+			final List<String> recipients = AppUtils.getAllActiveEmails();
 			Mails.rudelmail(subject, message, recipients.toArray(), AppUtils.getConnectedUser().getEmail());
 			flash.put("infomessage", Messages.get("info.rudelmail.send"));
 		} else {
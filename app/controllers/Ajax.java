@@ -13,6 +13,9 @@ import org.apache.commons.lang.StringUtils;
 
 import play.mvc.Controller;
 import play.mvc.With;
+import utils.CacheUtils;
+import utils.ScheduleUtils;
+import utils.WSUtils;
 
 @With(Auth.class)
 @CheckAccess("admin")
@@ -25,6 +28,8 @@ public class Ajax extends Controller {
 			if (StringUtils.isNotBlank(webserviceID)) {
 				game.setWebserviceID(webserviceID);
 				game._save();
+				ScheduleUtils.invalidate();
+				WSUtils.clearCache();
 				ok();
 			}
 		}
@@ -40,7 +45,9 @@ public class Ajax extends Controller {
 					SimpleDateFormat simpleDateFormat = new SimpleDateFormat("dd.MM.yyyy - HH:mm", Locale.ENGLISH);
 					game.setKickoff(simpleDateFormat.parse(kickoff));
 					game.setUpdateble(false);
-					game._save();		
+					game._save();
+					CacheUtils.bumpDataVersion();
+					ScheduleUtils.invalidate();
 				} catch (Exception e) {
 					badRequest();
 				}
@@ -61,6 +68,7 @@ public class Ajax extends Controller {
 				Bracket bracket = team.getBracket();
 				bracket.setUpdateble(false);
  				bracket._save();
+				CacheUtils.bumpDataVersion();
 				
 				ok();
 			}
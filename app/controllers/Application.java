@@ -1,28 +1,40 @@
 package controllers;
 
+import interfaces.Conditional;
+
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import models.Playday;
 import models.Settings;
-import models.User;
 import models.statistic.GameTipStatistic;
 import play.db.jpa.Transactional;
 import play.mvc.With;
 import utils.AppUtils;
+import utils.CacheUtils;
 import utils.DataUtils;
 
 @With(Auth.class)
 @Transactional(readOnly=true)
 public class Application extends Root {
 
+	@Conditional
 	public static void index() {
 		final int pointsDiff = AppUtils.getPointsToFirstPlace();
 		final String diffToTop = AppUtils.getDiffToTop(pointsDiff);
 		final Playday playday = AppUtils.getCurrentPlayday();
-		final List<User> topUsers = User.find("SELECT u FROM User u WHERE active = true ORDER BY place ASC").fetch(3);
-		final long users = AppUtils.getAllActiveUsers().size();
+		final long users = AppUtils.countActiveUsers();
+
+		final String key = CacheUtils.getFragmentKey("topthree");
+		String topThree = CacheUtils.getFragment(key);
+		if (topThree == null) {
+			final Map<String, Object> args = new HashMap<String, Object>();
+			args.put("topUsers", AppUtils.getUserSummaries("u.active = true", "u.place ASC", 3));
+			topThree = CacheUtils.renderFragment(key, "Application/topThree.html", args);
+		}
 
-		render(topUsers, playday, users, diffToTop);
+		render(topThree, playday, users, diffToTop);
 	}
 
 	public static void rules() {
@@ -30,6 +42,7 @@ public class Application extends Root {
 		render(settings);
 	}
 
+	@Conditional
 	public static void statistics() {
 		final List<Object[]> games = DataUtils.getGameStatistics();
 		final List<Object[]> results = DataUtils.getResultsStatistic();
@@ -6,6 +6,7 @@ import interfaces.CheckAccess;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import models.Confirmation;
 import models.ConfirmationType;
@@ -17,16 +18,22 @@ import org.apache.commons.lang.StringUtils;
 
 import play.Logger;
 import play.Play;
+import play.cache.Cache;
 import play.data.validation.Validation;
 import play.db.jpa.Transactional;
 import play.i18n.Messages;
 import play.libs.Codec;
 import play.libs.Crypto;
+import play.libs.F.Promise;
 import play.mvc.Before;
 import play.mvc.Controller;
 import play.mvc.Http;
 import play.utils.Java;
 import utils.AppUtils;
+import utils.CacheUtils;
+import utils.PasswordUtils;
+import utils.TaskUtils;
+import utils.ThrottleUtils;
 import utils.ValidationUtils;
 
 public class Auth extends Root implements AppConstants{
@@ -70,7 +77,7 @@ public class Auth extends Root implements AppConstants{
 	}
 
 	public static void password(final String token) {
-		final Confirmation confirmation = Confirmation.find("byToken", token).first();
+		final Confirmation confirmation = Confirmation.find("byTokenAndExpiresGreaterThan", token, new Date()).first();
 		if (confirmation == null) {
 			flash.put("warningmessage", Messages.get("controller.users.invalidtoken"));
 			flash.keep();
@@ -106,6 +113,7 @@ public class Auth extends Root implements AppConstants{
 				confirmation.setConfirmType(confirmType);
 				confirmation.setConfirmValue(Crypto.encryptAES(Codec.UUID()));
 				confirmation.setCreated(new Date());
+				confirmation.setExpires(AppUtils.getConfirmationExpiry());
 				confirmation._save();
 
 				Mails.confirm(user, token, confirmType);
@@ -125,7 +133,7 @@ public class Auth extends Root implements AppConstants{
 		if (validation.hasErrors()) {
 			flash.put("warningmessage", Messages.get("controller.users.invalidtoken"));
 		} else {
-			confirmation = Confirmation.find("byToken", token).first();
+			confirmation = Confirmation.find("byTokenAndExpiresGreaterThan", token, new Date()).first();
 		}
 
 		if ((confirmation != null) && !validation.hasErrors()) {
@@ -157,6 +165,7 @@ public class Auth extends Root implements AppConstants{
 		} else if ((ConfirmationType.CHANGEUSERNAME).equals(confirmationType)) {
 			final String oldusername = user.getEmail();
 			final String newusername = Crypto.decryptAES(confirmation.getConfirmValue());
+			Security.invalidate(user);
 			user.setEmail(newusername);
 			user._save();
 			session.remove("username");
@@ -176,17 +185,9 @@ public class Auth extends Root implements AppConstants{
 	}
 
 	private static void activateAndSetAvatar(final User user) {
-		final String avatar = AppUtils.getGravatarImage(user.getEmail(), "retro", PICTURELARGE);
-		final String avatarSmall = AppUtils.getGravatarImage(user.getEmail(), "retro", PICTURESMALL);
-		if (StringUtils.isNotBlank(avatar)) {
-			user.setPictureLarge(avatar);
-		}
-		if (StringUtils.isNotBlank(avatarSmall)) {
-			user.setPicture(avatarSmall);
-		}
-
 		user.setActive(true);
 		user._save();
+		TaskUtils.gravatar(user);
 	}
 
 	@Transactional(readOnly=true)
@@ -227,6 +228,16 @@ public class Auth extends Root implements AppConstants{
 			register();
 		} else {
 			final String salt = Codec.hexSHA1(Codec.UUID());
+			Promise<String> hashing = null;
+			try {
+				hashing = PasswordUtils.hashAsync(userpass, salt);
+			} catch (final RejectedExecutionException e) {
+				flash.put("errormessage", Messages.get("error.overloaded"));
+				params.flash();
+				register();
+			}
+			final String password = await(hashing);
+
 			final User user = new User();
 			user.setRegistered(new Date());
 			user.setUsername(username);
@@ -238,7 +249,7 @@ public class Auth extends Root implements AppConstants{
 			user.setNotification(true);
 			user.setAdmin(false);
 			user.setSalt(salt);
-			user.setUserpass(AppUtils.hashPassword(userpass, salt));
+			user.setUserpass(password);
 			user.setPoints(0);
 			user._save();
 
@@ -248,15 +259,16 @@ public class Auth extends Root implements AppConstants{
 			confirmation.setConfirmType(confirmationType);
 			confirmation.setConfirmValue(Crypto.encryptAES(Codec.UUID()));
 			confirmation.setCreated(new Date());
+			confirmation.setExpires(AppUtils.getConfirmationExpiry());
 			confirmation.setToken(token);
 			confirmation.setUser(user);
 			confirmation._save();
 
-			Mails.confirm(user, token, confirmationType);
+			TaskUtils.confirmationMail(user, token, confirmationType);
 			if (settings.isInformOnNewTipper()) {
 				final List<User> admins = User.find("byAdmin", true).fetch();
 				for (final User admin : admins) {
-					Mails.newuser(user, admin);
+					TaskUtils.newUserMail(user, admin);
 				}
 			}
 			Logger.info("User registered: " + user.getEmail());
@@ -295,7 +307,7 @@ public class Auth extends Root implements AppConstants{
 		validation.minSize(userpass, 8);
 		validation.maxSize(userpass, 32);
 
-		final Confirmation confirmation = Confirmation.find("byToken", token).first();
+		final Confirmation confirmation = Confirmation.find("byTokenAndExpiresGreaterThan", token, new Date()).first();
 		if (confirmation == null) {
 			flash.put("warningmessage", Messages.get("controller.users.invalidtoken"));
 			flash.keep();
@@ -306,12 +318,23 @@ public class Auth extends Root implements AppConstants{
 			Validation.keep();
 			password(token);
 		} else {
-			final User user = confirmation.getUser();
-			final String password = AppUtils.hashPassword(userpass, user.getSalt());
+			Promise<String> hashing = null;
+			try {
+				hashing = PasswordUtils.hashAsync(userpass, confirmation.getUser().getSalt());
+			} catch (final RejectedExecutionException e) {
+				flash.put("errormessage", Messages.get("error.overloaded"));
+				flash.keep();
+				password(token);
+			}
+			final String password = await(hashing);
+
+			final Confirmation renewal = Confirmation.find("byTokenAndExpiresGreaterThan", token, new Date()).first();
+			notFoundIfNull(renewal);
+			final User user = renewal.getUser();
 			user.setUserpass(password);
 			user._save();
 
-			confirmation._delete();
+			renewal._delete();
 			flash.put("infomessage", Messages.get("controller.auth.passwordreset"));
 			flash.keep();
 			redirect("/auth/login");
@@ -321,25 +344,59 @@ public class Auth extends Root implements AppConstants{
 	public static void authenticate(final String username, final String userpass, final boolean remember) {
 		if (ValidationUtils.verifyAuthenticity()) { checkAuthenticity(); }
 
-		Boolean allowed = false;
-		try {
-			allowed = (Boolean) Security.invoke("authenticate", username, userpass);
-			validation.isTrue(allowed);
-			validation.required(username);
-			validation.required(userpass);
-		} catch (final UnsupportedOperationException e) {
-			Logger.error("UnsupportedOperationException while authenticating", e);
-		} catch (final Throwable e) {
-			Logger.error("Authentication exception", e);
+		if (ThrottleUtils.isThrottled(username, request.remoteAddress)) {
+			flash.keep("url");
+			flash.put("errormessage", Messages.get("error.throttled"));
+			params.flash();
+			login();
+		}
+
+		boolean allowed = false;
+		final User user = User.find("SELECT u FROM User u WHERE active = true AND (username = ? OR email = ?)", username, username).first();
+		if ((user != null) && StringUtils.isNotBlank(userpass)) {
+			final Long userId = user.getId();
+			final String stored = user.getUserpass();
+			final String salt = user.getSalt();
+
+			Promise<Boolean> verification = null;
+			try {
+				verification = PasswordUtils.verifyAsync(userpass, user);
+			} catch (final RejectedExecutionException e) {
+				overloaded();
+			}
+			allowed = await(verification);
+
+			if (allowed && PasswordUtils.needsRehash(stored)) {
+				Promise<String> rehash = null;
+				try {
+					rehash = PasswordUtils.hashAsync(userpass, salt);
+				} catch (final RejectedExecutionException e) {
+					Logger.warn("Skipped rehashing password of user " + userId);
+				}
+
+				if (rehash != null) {
+					final String password = await(rehash);
+					final User rehashed = User.findById(userId);
+					rehashed.setUserpass(password);
+					rehashed._save();
+					Logger.info("Password rehashed: " + rehashed.getEmail());
+				}
+			}
 		}
 
+		validation.isTrue(allowed);
+		validation.required(username);
+		validation.required(userpass);
+
 		if (!allowed || validation.hasErrors()) {
+			ThrottleUtils.failed(username, request.remoteAddress);
 			flash.keep("url");
 			flash.put("errormessage", Messages.get("validation.invalidLogin"));
 			params.flash();
 			Validation.keep();
 			login();
 		} else {
+			ThrottleUtils.reset(username, request.remoteAddress);
 			session.put("username", username);
 			if (remember) {
 				response.setCookie("rememberme", Crypto.sign(username) + "-" + username, "7d");
@@ -361,6 +418,13 @@ public class Auth extends Root implements AppConstants{
 		login();
 	}
 
+	static void overloaded() {
+		flash.keep("url");
+		flash.put("errormessage", Messages.get("error.overloaded"));
+		params.flash();
+		login();
+	}
+
 	static void redirectToOriginalURL() {
 		try {
 			Security.invoke("onAuthenticated");
@@ -377,27 +441,41 @@ public class Auth extends Root implements AppConstants{
 	}
 
 	public static class Security extends Controller {
-		static boolean authenticate(final String username, final String userpass) {
-			String usersalt = null;
-			final User user = User.find("SELECT u FROM User u WHERE active = true AND username = ? OR email = ?", username, username).first();
-			if (user != null) {
-				usersalt = user.getSalt();
-				return AppUtils.connectUser(username, AppUtils.hashPassword(userpass, usersalt)) != null;
-			}
-
-			return false;
-		}
-
+		private static final String ADMIN = "admin-";
+		private static final String ADMIN_EXPIRATION = "10mn";
+		private static Class security;
+
+		/**
+		 * Checks if the connected user is an active admin. The result is cached under
+		 * the version of the user, which is kept in the database, so a change on one
+		 * node reaches all nodes within app.cache.versions seconds
+		 */
 		static boolean check(final String profile) {
-			boolean valid = false;
-			final User user = User.find("SELECT u FROM User u WHERE active = true AND username = ? OR email = ?", connected(), connected()).first();
-			if (user != null) {
-				valid = user.isAdmin();
+			final String connected = connected();
+			final String key = ADMIN + connected + "-" + CacheUtils.getUserVersion(connected);
+			Boolean valid = (Boolean) Cache.get(key);
+			if (valid == null) {
+				valid = false;
+				final User user = User.find("SELECT u FROM User u WHERE active = true AND (username = ? OR email = ?)", connected, connected).first();
+				if (user != null) {
+					valid = user.isAdmin();
+				}
+				Cache.set(key, valid, ADMIN_EXPIRATION);
 			}
 
 			return valid;
 		}
 
+		/**
+		 * Invalidates the cached admin flag of a user by bumping the version of the
+		 * user once the current transaction has been committed
+		 *
+		 * @param user The user whose rights, status or name have changed
+		 */
+		public static void invalidate(final User user) {
+			CacheUtils.bumpUserVersion(user);
+		}
+
 		public static String connected() {
 			return session.get("username");
 		}
@@ -419,12 +497,13 @@ public class Auth extends Root implements AppConstants{
 		}
 
 		private static Object invoke(final String m, final Object... args) throws Throwable {
-			Class security = null;
-			final List<Class> classes = Play.classloader.getAssignableClasses(Security.class);
-			if (classes.size() == 0) {
-				security = Security.class;
-			} else {
-				security = classes.get(0);
+			if (security == null) {
+				final List<Class> classes = Play.classloader.getAssignableClasses(Security.class);
+				if (classes.size() == 0) {
+					security = Security.class;
+				} else {
+					security = classes.get(0);
+				}
 			}
 			try {
 				return Java.invokeStaticOrParent(security, m, args);
@@ -1,5 +1,8 @@
 package controllers;
 
+import interfaces.Conditional;
+
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -10,24 +13,49 @@ import models.Pagination;
 import models.Playday;
 import models.User;
 import play.db.jpa.Transactional;
+import play.i18n.Messages;
 import play.mvc.With;
+import play.templates.TemplateLoader;
 import utils.AppUtils;
+import utils.CacheUtils;
 import utils.ViewUtils;
 
 @With(Auth.class)
 @Transactional(readOnly=true)
 public class Overview extends Root{
+    private static final int PAGE_SIZE = 15;
+
+    @Conditional(tips=true)
     public static void playday(final long number) {
         final Pagination pagination = ViewUtils.getPagination(number, "/overview/playday/");
 
         final Playday playday = Playday.find("byNumber", pagination.getNumberAsInt()).first();
-        final List<User> users = User.find("SELECT u FROM User u WHERE active = true ORDER BY place ASC").from(0).fetch(15);
-        final List<Map<User, List<GameTip>>> tips = AppUtils.getPlaydayTips(playday, users);
-        final long usersCount = User.count();
 
-        render(playday, tips, pagination, usersCount);
+        String table = null;
+        String key = null;
+        if (!playday.isTippable()) {
+            key = CacheUtils.getFragmentKey("overview-" + playday.getNumber());
+            table = CacheUtils.getFragment(key);
+        }
+
+        if (table == null) {
+            final List<User> users = User.find("SELECT u FROM User u WHERE active = true ORDER BY place ASC, id ASC").fetch(PAGE_SIZE);
+            final Map<String, Object> args = new HashMap<String, Object>();
+            args.put("playday", playday);
+            args.put("tips", AppUtils.getPlaydayTips(playday, users));
+            args.put("cursor", getNextCursor(users));
+
+            if (key != null) {
+                table = CacheUtils.renderFragment(key, "Overview/playdayTable.html", args);
+            } else {
+                table = TemplateLoader.load("Overview/playdayTable.html").render(args);
+            }
+        }
+
+        render(playday, table, pagination);
     }
 
+    @Conditional(tips=true)
     public static void extras() {
         final List<User> users = User.find("SELECT u FROM User u WHERE active = true ORDER BY place ASC").fetch();
         final List<Extra> extras = Extra.findAll();
@@ -36,11 +64,34 @@ public class Overview extends Root{
         render(tips, extras);
     }
 
-    public static void lazy(final int number, final int start) {
+    @Conditional(tips=true)
+    public static void lazy(final int number, final String cursor) {
+        final long[] position = ViewUtils.parseCursor(cursor);
+        if (position == null) {
+            badRequest();
+        }
+
+        if (position[0] != CacheUtils.getCalculationVersion()) {
+            response.status = 409;
+            renderText(Messages.get("overview.reload"));
+        }
+
         final Playday playday = Playday.find("byNumber", number).first();
-        final List<User> users = User.find("SELECT u FROM User u WHERE active = true ORDER BY place ASC").from(start).fetch(15);
+        notFoundIfNull(playday);
+
+        final List<User> users = User.find("SELECT u FROM User u WHERE active = true AND (place > ? OR (place = ? AND id > ?)) ORDER BY place ASC, id ASC",
+                (int) position[1], (int) position[1], position[2]).fetch(PAGE_SIZE);
         final List<Map<User, List<GameTip>>> tips = AppUtils.getPlaydayTips(playday, users);
+        response.setHeader("X-Next-Cursor", getNextCursor(users));
 
         render(tips);
     }
+
+    private static String getNextCursor(final List<User> users) {
+        if ((users == null) || (users.size() < PAGE_SIZE)) {
+            return "";
+        }
+
+        return ViewUtils.getCursor(users.get(users.size() - 1), CacheUtils.getCalculationVersion());
+    }
 }
\ No newline at end of file
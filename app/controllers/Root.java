@@ -1,11 +1,41 @@
 package controllers;
 
+import interfaces.Conditional;
 import models.User;
+
+import org.apache.commons.lang.StringUtils;
+
+import play.i18n.Lang;
+import play.libs.Codec;
 import play.mvc.Before;
 import play.mvc.Controller;
 import utils.AppUtils;
+import utils.CacheUtils;
 
 public class Root extends Controller {
+	@Before(priority=-1)
+	protected static void conditional() {
+		final Conditional conditional = getActionAnnotation(Conditional.class);
+		final String username = session.get("username");
+		if ((conditional == null) || StringUtils.isBlank(username) || !("GET").equals(request.method) || !flash.data.isEmpty()) {
+			return;
+		}
+
+		AppUtils.setAppLanguage();
+		final long dataVersion = CacheUtils.getDataVersion();
+		final long userVersion = CacheUtils.getUserVersion(username);
+		final long tipsVersion = conditional.tips() ? CacheUtils.getTipsVersion() : 0;
+		final long lastModified = Math.max(dataVersion, Math.max(userVersion, tipsVersion));
+		final String etag = "\"" + Codec.hexMD5(dataVersion + "-" + userVersion + "-" + tipsVersion + "-" + username + "-" + Lang.get() + "-" + request.url) + "\"";
+
+		if (!request.isModified(etag, lastModified)) {
+			notModified();
+		}
+
+		response.cacheFor(etag, "0s", lastModified);
+		response.setHeader("Cache-Control", "private, max-age=0");
+	}
+
 	@Before
 	protected static void init() {
 		AppUtils.setAppLanguage();
@@ -21,6 +51,6 @@ public class Root extends Controller {
 			renderArgs.put("connectedUser", null);
 		}
 
-		renderArgs.put("currentPlayday", AppUtils.getCurrentPlayday());
+		renderArgs.put("currentPlayday", AppUtils.getCurrentPlaydayNumber());
 	}
 }
\ No newline at end of file
@@ -1,22 +1,37 @@
 package controllers;
 
 import interfaces.AppConstants;
+import interfaces.ResultsProvider;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import models.Game;
 import models.Settings;
 import models.User;
+import models.WSMatch;
+
+import org.apache.commons.lang.StringUtils;
+
 import play.Logger;
 import play.Play;
 import play.db.jpa.NoTransaction;
 import play.libs.Codec;
 import play.mvc.Before;
 import play.mvc.Controller;
+import play.mvc.Http.Response;
 import play.test.Fixtures;
 import utils.AppUtils;
+import utils.PasswordUtils;
 import utils.SetupUtils;
+import utils.ValidationUtils;
+import utils.WSUtils;
 
 public class System extends Controller implements AppConstants {
 	
@@ -73,7 +88,7 @@ public class System extends Controller implements AppConstants {
 			user.setSalt(salt);
 			user.setEmail("admin@foo.bar");
 			user.setUsername("admin");
-			user.setUserpass(AppUtils.hashPassword("admin", salt));
+			user.setUserpass(PasswordUtils.hash("admin", salt));
 			user.setRegistered(new Date());
 			user.setExtraPoints(0);
 			user.setTipPoints(0);
@@ -86,18 +101,108 @@ public class System extends Controller implements AppConstants {
 			user.setCorrectTrends(0);
 			user.setCorrectExtraTips(0);
 			user._save();
+			AppUtils.resetApplicationCache();
 			ok();
 		}
 		redirect("/");
 	}
 
+	/**
+	 * Writes the playdays and games of a season as YAML fixtures. With a file name the
+	 * fixtures are written to tmp/yamler/<file>.yml, an existing file is not overwritten.
+	 * Otherwise they are sent to the browser, one chunk per playday
+	 */
 	@NoTransaction
-	public static void yamler() {
+	public static void yamler(final int playdays, final String league, final String season, final String file) throws IOException {
+		if (("true").equals(Play.configuration.getProperty("yamler"))) {
+			final ResultsProvider provider = WSUtils.getProvider();
+			if (StringUtils.isNotBlank(file) && file.matches("[a-z0-9]+")) {
+				final File fixtures = Play.getFile("tmp/yamler/" + file + ".yml");
+				if (fixtures.exists()) {
+					forbidden(fixtures.getAbsolutePath() + " already exists");
+				}
+
+				fixtures.getParentFile().mkdirs();
+				final Writer writer = new OutputStreamWriter(new FileOutputStream(fixtures), "UTF-8");
+				try {
+					final int games = SetupUtils.writeFixtures(provider, getPlaydays(playdays), getLeague(league), getSeason(season), writer);
+					renderText("Wrote " + games + " games to " + fixtures.getAbsolutePath());
+				} finally {
+					writer.close();
+				}
+			}
+
+			response.contentType = "text/plain; charset=utf-8";
+			final Writer writer = new ChunkWriter(response);
+			SetupUtils.writeFixtures(provider, getPlaydays(playdays), getLeague(league), getSeason(season), writer);
+			writer.close();
+			ok();
+		}
+		notFound();
+	}
+
+	/**
+	 * Imports the playdays and games of a season into the database. Only accepts
+	 * POST requests of a connected admin, matches which already exist are skipped
+	 */
+	public static void yamlerimport(final int playdays, final String league, final String season) {
 		if (("true").equals(Play.configuration.getProperty("yamler"))) {
-			final List<String> playdays = SetupUtils.generatePlaydays(34);
-			final List<String> games = SetupUtils.getGamesFromWebService(34, "WM-2014", "2014");
-			render(playdays, games);
+			if (!("POST").equals(request.method)) {
+				error(405, "Method Not Allowed");
+			}
+			if (!Auth.Security.isConnected() || !Auth.Security.check("admin")) {
+				forbidden();
+			}
+			if (ValidationUtils.verifyAuthenticity()) {
+				checkAuthenticity();
+			}
+
+			final Map<Integer, List<WSMatch>> matches = SetupUtils.getMatchesFromWebService(WSUtils.getProvider(), getPlaydays(playdays), getLeague(league), getSeason(season));
+			final int games = SetupUtils.importGames(matches);
+			renderText("Imported " + games + " games of " + matches.size() + " playdays");
 		}
 		notFound();
 	}
-}
\ No newline at end of file
+
+	private static int getPlaydays(final int playdays) {
+		return (playdays > 0) ? playdays : 34;
+	}
+
+	private static String getLeague(final String league) {
+		return StringUtils.isNotBlank(league) ? league.trim() : WSUtils.getLeague();
+	}
+
+	private static String getSeason(final String season) {
+		return StringUtils.isNotBlank(season) ? season.trim() : WSUtils.getSeason();
+	}
+
+	/**
+	 * Sends everything written since the last flush as a chunk of the response
+	 */
+	private static class ChunkWriter extends Writer {
+		private final Response response;
+		private final StringBuilder buffer = new StringBuilder();
+
+		ChunkWriter(final Response response) {
+			this.response = response;
+		}
+
+		@Override
+		public void write(final char[] chars, final int offset, final int length) {
+			this.buffer.append(chars, offset, length);
+		}
+
+		@Override
+		public void flush() {
+			if (this.buffer.length() > 0) {
+				this.response.writeChunk(this.buffer.toString());
+				this.buffer.setLength(0);
+			}
+		}
+
+		@Override
+		public void close() {
+			flush();
+		}
+	}
+}
@@ -1,6 +1,9 @@
 package controllers;
 
+import interfaces.Conditional;
+
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -10,7 +13,6 @@ import models.Game;
 import models.Pagination;
 import models.Playday;
 import models.Team;
-import models.User;
 
 import org.apache.commons.lang.StringUtils;
 
@@ -18,6 +20,7 @@ import play.db.jpa.Transactional;
 import play.i18n.Messages;
 import play.mvc.With;
 import utils.AppUtils;
+import utils.CacheUtils;
 import utils.ValidationUtils;
 import utils.ViewUtils;
 
@@ -104,7 +107,7 @@ public class Tips extends Root {
                     bonusTippId = Long.parseLong(bId);
                     teamId = Long.parseLong(tId);
                 } else {
-                	playday(AppUtils.getCurrentPlayday().getNumber());
+                	playday(AppUtils.getCurrentPlaydayNumber());
                 }
 
                 final Extra extra = Extra.findById(bonusTippId);
@@ -116,11 +119,20 @@ public class Tips extends Root {
                 }
             }
         }
-        playday(AppUtils.getCurrentPlayday().getNumber());
+        playday(AppUtils.getCurrentPlaydayNumber());
     }
 
+    @Conditional
+    @Transactional(readOnly=true)
     public static void standings() {
-        final List<User> users = User.find("SELECT u FROM User u WHERE active = true ORDER BY place ASC").fetch();
-        render(users);
+        final String key = CacheUtils.getFragmentKey("standings");
+        String standings = CacheUtils.getFragment(key);
+        if (standings == null) {
+            final Map<String, Object> args = new HashMap<String, Object>();
+            args.put("users", AppUtils.getUserSummaries("u.active = true", "u.place ASC", 0));
+            standings = CacheUtils.renderFragment(key, "Tips/standingsTable.html", args);
+        }
+
+        render(standings);
     }
 }
\ No newline at end of file
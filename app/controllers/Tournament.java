@@ -1,5 +1,7 @@
 package controllers;
 
+import interfaces.Conditional;
+
 import java.util.List;
 
 import models.Bracket;
@@ -12,11 +14,13 @@ import utils.ViewUtils;
 @With(Auth.class)
 @Transactional(readOnly=true)
 public class Tournament extends Root {
+	@Conditional
 	public static void brackets() {
 		final List<Bracket> brackets = Bracket.findAll();
 		render(brackets);
 	}
 
+	@Conditional
 	public static void playday(final long number) {
 		final Pagination pagination = ViewUtils.getPagination(number, "/tournament/playday/");
 		final Playday playday = Playday.find("byNumber", pagination.getNumberAsInt()).first();
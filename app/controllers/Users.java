@@ -2,6 +2,7 @@ package controllers;
 
 import interfaces.AppConstants;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.text.DecimalFormat;
@@ -9,6 +10,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import models.Confirmation;
 import models.ConfirmationType;
@@ -20,15 +22,22 @@ import models.Settings;
 import models.User;
 import models.statistic.UserStatistic;
 import notifiers.Mails;
+
+import org.apache.commons.lang.StringUtils;
+
 import play.Logger;
 import play.data.validation.Validation;
+import play.db.jpa.JPA;
 import play.db.jpa.Transactional;
 import play.i18n.Messages;
 import play.libs.Codec;
 import play.libs.Crypto;
+import play.libs.F.Promise;
 import play.libs.Images;
 import play.mvc.With;
 import utils.AppUtils;
+import utils.CacheUtils;
+import utils.PasswordUtils;
 import utils.ValidationUtils;
 
 @With(Auth.class)
@@ -76,7 +85,7 @@ public class Users extends Root implements AppConstants{
             }
 
             final List<UserStatistic> userStatistics = UserStatistic.find("SELECT u FROM UserStatistic u WHERE user = ? ORDER BY playday ASC", user).fetch();
-            final int users = AppUtils.getAllActiveUsers().size(); 
+            final int users = (int) AppUtils.countActiveUsers();
             final int usersScale = users + 1;
             
             render(user, statistics, pointsPerTipp, tippQuote, tippedGames, userStatistics, users, usersScale);
@@ -85,6 +94,42 @@ public class Users extends Root implements AppConstants{
         }
     }
 
+    /**
+     * Renders the small profile picture of a user. Requests with the current
+     * version of the picture may be cached by the browser for a year, as a
+     * changed picture gets a new URL
+     *
+     * @param username The username
+     * @param v The version of the picture from the URL
+     */
+    @Transactional(readOnly=true)
+    public static void picture(final String username, final String v) {
+        final List<Object[]> pictures = JPA.em()
+                .createQuery("SELECT u.picture, u.pictureVersion FROM User u WHERE u.username = :username AND u.picture IS NOT NULL", Object[].class)
+                .setParameter("username", username)
+                .getResultList();
+        if (pictures.isEmpty()) {
+            notFound();
+        }
+
+        final String picture = (String) pictures.get(0)[0];
+        final String version = (String) pictures.get(0)[1];
+        final String etag = "\"" + version + "\"";
+        if (!request.isModified(etag, 0)) {
+            notModified();
+        }
+        response.setHeader("ETag", etag);
+        if ((version != null) && version.equals(v)) {
+            response.setHeader("Cache-Control", "private, max-age=31536000, immutable");
+        } else {
+            response.setHeader("Cache-Control", "private, max-age=0");
+        }
+
+        final int separator = picture.indexOf(',');
+        final String contentType = StringUtils.substringBetween(picture, "data:", ";");
+        renderBinary(new ByteArrayInputStream(Codec.decodeBASE64(picture.substring(separator + 1))), username, contentType, true);
+    }
+
     @Transactional(readOnly=true)
     public static void profile() {
         final User user = AppUtils.getConnectedUser();
@@ -105,8 +150,10 @@ public class Users extends Root implements AppConstants{
             validation.keep();
         } else {
             final User user = AppUtils.getConnectedUser();
+            Auth.Security.invalidate(user);
             user.setUsername(username);
             user._save();
+            CacheUtils.bumpDataVersion();
 
             flash.put("infomessage", Messages.get("controller.profile.updateusername"));
             Logger.info("username updated: " + user.getEmail() + " / " + username);
@@ -134,6 +181,7 @@ public class Users extends Root implements AppConstants{
             final User user = AppUtils.getConnectedUser();
             if (user != null) {
 				if (user.isAdmin()) {
+					Auth.Security.invalidate(user);
 					user.setEmail(email);
 					user._save();
 					flash.put("infomessage", Messages.get("admin.user.edited"));
@@ -142,7 +190,9 @@ public class Users extends Root implements AppConstants{
 					final Confirmation confirmation = new Confirmation();
 					confirmation.setConfirmType(confirmationType);
 					confirmation.setConfirmValue(Crypto.encryptAES(email));
+					confirmation.setConfirmHash(ValidationUtils.getEmailHash(email));
 					confirmation.setCreated(new Date());
+					confirmation.setExpires(AppUtils.getConfirmationExpiry());
 					confirmation.setToken(token);
 					confirmation.setUser(user);
 					confirmation._save();
@@ -169,13 +219,28 @@ public class Users extends Root implements AppConstants{
             validation.keep();
         } else {
             final String token = Codec.UUID();
+            final User connectedUser = AppUtils.getConnectedUser();
+            String password = null;
+            if (connectedUser != null) {
+                Promise<String> hashing = null;
+                try {
+                    hashing = PasswordUtils.hashAsync(userpass, connectedUser.getSalt());
+                } catch (final RejectedExecutionException e) {
+                    flash.put("errormessage", Messages.get("error.overloaded"));
+                    flash.keep();
+                    redirect("/users/profile");
+                }
+                password = await(hashing);
+            }
+
             final User user = AppUtils.getConnectedUser();
-            if (user != null) {
+            if ((user != null) && (password != null)) {
                 final ConfirmationType confirmationType = ConfirmationType.CHANGEUSERPASS;
                 final Confirmation confirm = new Confirmation();
                 confirm.setConfirmType(confirmationType);
-                confirm.setConfirmValue(Crypto.encryptAES(AppUtils.hashPassword(userpass, user.getSalt())));
+                confirm.setConfirmValue(Crypto.encryptAES(password));
                 confirm.setCreated(new Date());
+                confirm.setExpires(AppUtils.getConfirmationExpiry());
                 confirm.setToken(token);
                 confirm.setUser(user);
                 confirm._save();
@@ -235,6 +300,7 @@ public class Users extends Root implements AppConstants{
                 }
 
                 user._save();
+                CacheUtils.bumpDataVersion();
                 flash.put("infomessage", Messages.get("controller.profile.updatepicture"));
                 Logger.info("Picture updated: " + user.getEmail());
             } catch (final IOException e) {
@@ -252,6 +318,7 @@ public class Users extends Root implements AppConstants{
         user.setPicture(null);
         user.setPictureLarge(null);
         user._save();
+        CacheUtils.bumpDataVersion();
 
         flash.put("infomessage", Messages.get("controller.profile.deletedpicture"));
         flash.keep();
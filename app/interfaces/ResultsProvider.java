@@ -0,0 +1,65 @@
+package interfaces;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import models.WSMatch;
+import models.WSResults;
+
+/**
+ * Source of match results and kickoffs. Implementations must not access the
+ * database, as they are called concurrently from the webservice threads
+ */
+public interface ResultsProvider {
+	/**
+	 * Loads the result of a match
+	 *
+	 * @param matchID The webservice ID of the match
+	 * @return The results, marked as updated if the match is finished
+	 * @throws Exception if the request fails
+	 */
+	public WSResults getResults(String matchID) throws Exception;
+
+	/**
+	 * Loads the kickoff of a match
+	 *
+	 * @param matchID The webservice ID of the match
+	 * @return The kickoff, null if the match has no kickoff
+	 * @throws Exception if the request fails
+	 */
+	public Date getKickoff(String matchID) throws Exception;
+
+	/**
+	 * Loads the kickoffs of all matches of a playday
+	 *
+	 * @param playday The number of the playday
+	 * @param leagueShortcut The shortcut of the league, e.g. bl1
+	 * @param leagueSaison The season, e.g. 2013
+	 * @return The kickoffs by webservice ID
+	 * @throws Exception if the request fails
+	 */
+	public Map<String, Date> getKickoffs(int playday, String leagueShortcut, String leagueSaison) throws Exception;
+
+	/**
+	 * Loads all matches of a playday, including the webservice IDs of the teams
+	 *
+	 * @param playday The number of the playday
+	 * @param leagueShortcut The shortcut of the league, e.g. bl1
+	 * @param leagueSaison The season, e.g. 2013
+	 * @return The matches of the playday
+	 * @throws Exception if the request fails
+	 */
+	public List<WSMatch> getMatches(int playday, String leagueShortcut, String leagueSaison) throws Exception;
+
+	/**
+	 * Loads the time of the last change to the matches of a playday
+	 *
+	 * @param playday The number of the playday
+	 * @param leagueShortcut The shortcut of the league, e.g. bl1
+	 * @param leagueSaison The season, e.g. 2013
+	 * @return The time of the last change, null if the upstream does not track changes
+	 * @throws Exception if the request fails
+	 */
+	public Date getLastChange(int playday, String leagueShortcut, String leagueSaison) throws Exception;
+}
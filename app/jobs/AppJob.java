@@ -1,11 +1,57 @@
 package jobs;
 
 import play.jobs.Job;
+import utils.JobUtils;
 
 public class AppJob extends Job{
+	private static final ThreadLocal<Run> run = new ThreadLocal<Run>();
 	private String description;
 	private String executed;
 
+	/**
+	 * Runs the job and records the run, if the job has called begin()
+	 */
+	@Override
+	public Object doJobWithResult() throws Exception {
+		final Run current = new Run();
+		run.set(current);
+		String error = null;
+		try {
+			return super.doJobWithResult();
+		} catch (final Exception e) {
+			error = e.toString();
+			throw e;
+		} finally {
+			run.remove();
+			if (current.started > 0) {
+				JobUtils.record(this.getClass().getSimpleName(), current.started, System.currentTimeMillis(), current.items, error);
+			}
+		}
+	}
+
+	/**
+	 * Marks the start of the actual work of a job. Runs which end before
+	 * this method is called, e.g. because the job is inactive, are not recorded
+	 */
+	protected void begin() {
+		final Run current = run.get();
+		if (current != null) {
+			current.started = System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * Adds to the number of items processed by the current run
+	 *
+	 * @param items The number of items
+	 */
+	protected void addItems(final int items) {
+		final Run current = run.get();
+		if (current != null) {
+			current.items += items;
+		}
+	}
+
 	public String getExecuted() {
 		return executed;
 	}
@@ -21,4 +67,9 @@ public class AppJob extends Job{
 	public void setDescription(final String description) {
 		this.description = description;
 	}
-}
\ No newline at end of file
+
+	private static class Run {
+		private long started;
+		private int items;
+	}
+}
@@ -1,20 +1,20 @@
 package jobs;
 
+import java.util.Date;
 import java.util.List;
 
 import models.AbstractJob;
-import models.Confirmation;
 import models.ConfirmationType;
-import models.ExtraTip;
-import models.GameTip;
-import models.User;
 import play.Logger;
+import play.db.jpa.JPA;
 import play.i18n.Messages;
 import play.jobs.On;
 import utils.AppUtils;
+import utils.JobUtils;
 
 @On("0 0 2 * * ?")
 public class CleanupJob extends AppJob {
+    private static final int BATCH_SIZE = 500;
 
     public CleanupJob() {
         this.setDescription(Messages.get("job.cleanupjob.description"));
@@ -27,20 +27,47 @@ public class CleanupJob extends AppJob {
             AbstractJob job = AbstractJob.find("byName", "CleanupJob").first();
             if (job != null && job.isActive()) {
                 Logger.info("Started Job: CleanupJob");
-                final List<Confirmation> confirmations = Confirmation.find("SELECT c FROM Confirmation c WHERE confirmType = ? AND DATE(NOW()) > (DATE(created) + 2)", ConfirmationType.ACTIVATION).fetch();
-                for (final Confirmation confirmation : confirmations) {
-                    final User user = confirmation.getUser();
-                    if ((user != null) && !user.isActive()) {
-                        final List<GameTip> gameTips = user.getGameTips();
-                        final List<ExtraTip> extraTips = user.getExtraTips();
-                        if ( ((gameTips == null) || (gameTips.size() <= 0)) && ((extraTips == null) || (extraTips.size() <= 0)) ) {
-                            Logger.info("Deleting user: '" + user.getUsername() + " (" + user.getEmail() + ")' - User did not activate within 2 days after registration and has no game tips and no extra tips.");
-                            user._delete();
-                        }
-                    }
-                }
-                Logger.info("Finished Job: CleanupJob");
+                this.begin();
+                final long start = System.currentTimeMillis();
+                final Date now = new Date();
+
+                final int users = deleteInactiveUsers(now);
+                final int confirmations = JPA.em()
+                        .createQuery("DELETE FROM Confirmation c WHERE c.expires < :now")
+                        .setParameter("now", now)
+                        .executeUpdate();
+                final int runs = JobUtils.deleteExpiredRuns();
+                this.addItems(users + confirmations + runs);
+
+                Logger.info("Finished Job: CleanupJob - deleted " + confirmations + " expired confirmations, " + users + " inactive users and " + runs + " job runs in " + (System.currentTimeMillis() - start) + " ms");
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Deletes all users whose activation has expired and who have no game tips and no extra tips
+     *
+     * @param now The current date
+     * @return The number of deleted users
+     */
+    private int deleteInactiveUsers(final Date now) {
+        final List<Long> ids = JPA.em()
+                .createQuery("SELECT c.user.id FROM Confirmation c WHERE c.confirmType = :type AND c.expires < :now AND c.user.active = false "
+                        + "AND NOT EXISTS (SELECT g.id FROM GameTip g WHERE g.user = c.user) "
+                        + "AND NOT EXISTS (SELECT e.id FROM ExtraTip e WHERE e.user = c.user)", Long.class)
+                .setParameter("type", ConfirmationType.ACTIVATION)
+                .setParameter("now", now)
+                .getResultList();
+
+        int deleted = 0;
+        for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+            final List<Long> batch = ids.subList(i, Math.min(i + BATCH_SIZE, ids.size()));
+            JPA.em().createQuery("DELETE FROM Confirmation c WHERE c.user.id IN (:ids)").setParameter("ids", batch).executeUpdate();
+            JPA.em().createQuery("DELETE FROM UserStatistic u WHERE u.user.id IN (:ids)").setParameter("ids", batch).executeUpdate();
+            JPA.em().createQuery("DELETE FROM ResultStatistic r WHERE r.user.id IN (:ids)").setParameter("ids", batch).executeUpdate();
+            deleted += JPA.em().createQuery("DELETE FROM User u WHERE u.id IN (:ids)").setParameter("ids", batch).executeUpdate();
+        }
+
+        return deleted;
+    }
+}
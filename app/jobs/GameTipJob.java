@@ -1,15 +1,27 @@
 package jobs;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import models.AbstractJob;
 import models.Game;
 import models.User;
-import notifiers.Mails;
+
+import org.apache.commons.lang.StringEscapeUtils;
+
 import play.Logger;
+import play.db.jpa.JPA;
 import play.i18n.Messages;
 import play.jobs.Every;
 import utils.AppUtils;
+import utils.CacheUtils;
+import utils.MailUtils;
+import utils.ScheduleUtils;
+import utils.ValidationUtils;
 
 @Every("1min")
 public class GameTipJob extends AppJob{
@@ -21,22 +33,38 @@ public class GameTipJob extends AppJob{
 
     @Override
     public void doJob() {
-        if (AppUtils.isJobInstance()) {
+        final long now = System.currentTimeMillis();
+        if (AppUtils.isJobInstance() && ScheduleUtils.isGameTipsDue(now)) {
             AbstractJob job = AbstractJob.find("byName", "GameTipJob").first();
             if (job != null && job.isActive()) {
                 Logger.info("Started Job: GameTipJob");
-                final List<User> users = User.find("SELECT u FROM User u WHERE active = ? AND sendGameTips = ?", true, true).fetch();
-                final List<Game> games = Game.find("SELECT g FROM Game g WHERE informed = ? AND ( TIMESTAMPDIFF(MINUTE,kickoff,now()) > 1 )", false).fetch();
+                this.begin();
+                final List<Game> games = Game.find("SELECT DISTINCT g FROM Game g LEFT JOIN FETCH g.gameTips t LEFT JOIN FETCH t.user WHERE g.informed = false AND g.kickoff < ? ORDER BY g.kickoff", new Date(now - 60000L)).fetch();
 
                 if (games != null && games.size() > 0) {
-                    for (final User user : users) {
-                        Mails.gametips(user, games);
+                    final List<Object[]> users = User.find("SELECT u.email, u.username FROM User u WHERE u.active = true AND u.sendGameTips = true").fetch();
+                    final Map<String, String> recipients = new LinkedHashMap<String, String>();
+                    for (final Object[] user : users) {
+                        if (ValidationUtils.isValidEmail((String) user[0])) {
+                            recipients.put((String) user[0], (String) user[1]);
+                        }
                     }
 
+                    final Map<String, Object> args = new HashMap<String, Object>();
+                    args.put("games", games);
+                    final String[] envelope = MailUtils.renderEnvelope("Mails/gametips.html", args);
+                    final String subject = StringEscapeUtils.unescapeHtml("[" + AppUtils.getSettings().getGameName() + "] " + Messages.get("overview"));
+                    final int sent = MailUtils.sendHtml(subject, envelope, recipients);
+                    this.addItems(sent);
+
+                    final List<Long> ids = new ArrayList<Long>();
                     for (final Game game : games) {
-                        game.setInformed(true);
-                        game._save();
+                        ids.add(game.getId());
                     }
+                    JPA.em().createQuery("UPDATE Game g SET g.informed = true WHERE g.id IN (:ids)").setParameter("ids", ids).executeUpdate();
+                    CacheUtils.bumpDataVersion();
+                    ScheduleUtils.invalidate();
+                    Logger.info("Sent game tips of " + games.size() + " games to " + sent + " of " + recipients.size() + " users");
                 }
 
                 Logger.info("Finished Job: GameTipJob");
@@ -0,0 +1,19 @@
+package jobs;
+
+import play.i18n.Messages;
+import play.jobs.Every;
+import utils.LeaseUtils;
+
+@Every("5s")
+public class LeaseJob extends AppJob {
+
+    public LeaseJob() {
+        this.setDescription(Messages.get("job.leasejob.description"));
+        this.setExecuted(Messages.get("job.leasejob.executed"));
+    }
+
+    @Override
+    public void doJob() {
+        LeaseUtils.renew();
+    }
+}
@@ -1,26 +1,26 @@
 package jobs;
 
-import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.TimeZone;
+import java.util.Map;
 
 import models.AbstractJob;
 import models.Game;
-import models.Playday;
-
-import org.apache.commons.lang.StringUtils;
-import org.w3c.dom.Document;
 
 import play.Logger;
 import play.i18n.Messages;
 import play.jobs.On;
 import utils.AppUtils;
-import utils.SetupUtils;
+import utils.CacheUtils;
+import utils.ScheduleUtils;
 import utils.WSUtils;
 
 @On("0 0 5 * * ?")
 public class PlaydayJob extends AppJob{
+    private static final int PLAYDAYS = 3;
 
     public PlaydayJob() {
         this.setDescription(Messages.get("job.playdayjob.description"));
@@ -33,30 +33,64 @@ public class PlaydayJob extends AppJob{
             AbstractJob job = AbstractJob.find("byName", "PlaydayJob").first();
             if (job != null && job.isActive()) {
                 Logger.info("Started Job: PlaydayJob");
-                int number = AppUtils.getCurrentPlayday().getNumber();
-                for (int i=0; i <= 3; i++) {
-                    final Playday playday = Playday.find("byNumber", number).first();
-                    if (playday != null) {
-                        final List<Game> games = playday.getGames();
-                        for (final Game game : games) {
-                            final String matchID = game.getWebserviceID();
-                            if (StringUtils.isNotBlank(matchID) && game.isUpdateble()) {
-                                final Document document = WSUtils.getDocumentFromWebService(matchID);
-                                final Date kickoff = SetupUtils.getKickoffFromDocument(document);
-                                final SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd kk:mm:ss");
-                                df.setTimeZone(TimeZone.getTimeZone(AppUtils.getCurrentTimeZone()));
-
-                                game.setKickoff(kickoff);
-                                game._save();
-
-                                Logger.info("Updated Kickoff and MatchID of Playday: " + playday.getName());
-                            }
+                this.begin();
+                final int number = AppUtils.getCurrentPlaydayNumber();
+                final List<Game> games = Game.find("SELECT g FROM Game g WHERE g.playday.number BETWEEN ? AND ? AND g.updateble = true AND g.webserviceID <> '' ORDER BY g.playday.number", number, number + PLAYDAYS).fetch();
+
+                final Map<Integer, List<Game>> playdays = new LinkedHashMap<Integer, List<Game>>();
+                for (final Game game : games) {
+                    final int playday = game.getPlayday().getNumber();
+                    if (!playdays.containsKey(playday)) {
+                        playdays.put(playday, new ArrayList<Game>());
+                    }
+                    playdays.get(playday).add(game);
+                }
+
+                int changed = 0;
+                for (final Map.Entry<Integer, List<Game>> playday : playdays.entrySet()) {
+                    final Map<String, Date> kickoffs = getKickoffs(playday.getKey(), playday.getValue());
+                    for (final Game game : playday.getValue()) {
+                        final Date kickoff = kickoffs.get(game.getWebserviceID());
+                        if ((kickoff != null) && (kickoff.getTime() != game.getKickoff().getTime())) {
+                            Logger.info("Updated Kickoff of " + game + " from " + game.getKickoff() + " to " + kickoff);
+                            game.setKickoff(kickoff);
+                            game._save();
+                            changed++;
                         }
                     }
-                    number++;
                 }
-                Logger.info("Finished Job: PlaydayJob");
+                this.addItems(changed);
+
+                if (changed > 0) {
+                    CacheUtils.bumpDataVersion();
+                    ScheduleUtils.invalidate();
+                }
+                Logger.info("Finished Job: PlaydayJob (" + changed + " of " + games.size() + " kickoffs changed)");
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Loads the kickoffs of the games of a playday with one request for the configured
+     * league and season (app.ws.league, app.ws.season). Games missing in the response,
+     * e.g. if the request failed or league and season do not match the games, are
+     * requested on their own
+     *
+     * @param number The number of the playday
+     * @param games The games of the playday
+     * @return The kickoffs by webservice ID
+     */
+    private Map<String, Date> getKickoffs(final int number, final List<Game> games) {
+        final Map<String, Date> kickoffs = new HashMap<String, Date>(WSUtils.getKickoffs(number, WSUtils.getLeague(), WSUtils.getSeason()));
+        for (final Game game : games) {
+            if (!kickoffs.containsKey(game.getWebserviceID())) {
+                final Date kickoff = WSUtils.getKickoff(game.getWebserviceID());
+                if (kickoff != null) {
+                    kickoffs.put(game.getWebserviceID(), kickoff);
+                }
+            }
+        }
+
+        return kickoffs;
+    }
+}
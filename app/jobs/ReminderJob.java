@@ -1,22 +1,27 @@
 package jobs;
 
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import models.AbstractJob;
 import models.Extra;
-import models.ExtraTip;
 import models.Game;
-import models.GameTip;
 import models.User;
 import notifiers.Mails;
 import play.Logger;
+import play.db.jpa.JPA;
 import play.i18n.Messages;
 import play.jobs.Every;
 import utils.AppUtils;
 
 @Every("1h")
 public class ReminderJob extends AppJob {
+    private static final long REMINDER_WINDOW = 24 * 3600000L;
+    private static final int BATCH_SIZE = 500;
 
     public ReminderJob() {
         this.setDescription(Messages.get("job.reminderjob.description"));
@@ -26,49 +31,96 @@ public class ReminderJob extends AppJob {
     @Override
     public void doJob() {
         if (AppUtils.isJobInstance()) {
-            AbstractJob job = AbstractJob.find("byName", "PlaydayJob").first();
+            AbstractJob job = AbstractJob.find("byName", "ReminderJob").first();
             if (job != null && job.isActive()) {
                 Logger.info("Started Job: ReminderJob");
-                final List<Extra> nextExtras = Extra.find("SELECT e FROM Extra e WHERE reminder = ? AND ( TIMESTAMPDIFF(HOUR,ending,now()) > 0 ) AND ( TIMESTAMPDIFF(HOUR,ending,now()) < 24 )", false).fetch();
-                final List<Game> nextGames = Game.find("SELECT g FROM Game g WHERE  reminder = ? AND ( TIMESTAMPDIFF(HOUR,kickoff,now()) > 0 ) AND ( TIMESTAMPDIFF(HOUR,kickoff,now()) < 24 )", false).fetch();
-                final List<User> users = User.find("byReminderAndActive", true, true).fetch();
-
-                for (final User user : users) {
-                    final List<Game> reminderGames = new ArrayList();
-                    final List<Extra> reminderBonus = new ArrayList();
-
-                    for (final Game game : nextGames) {
-                        final GameTip gameTip = GameTip.find("byGameAndUser", game, user).first();
-                        if (gameTip == null) {
-                            reminderGames.add(game);
-                        }
-                    }
+                this.begin();
+                final Date now = new Date();
+                final Date until = new Date(now.getTime() + REMINDER_WINDOW);
+
+                final Map<Long, Game> nextGames = new HashMap<Long, Game>();
+                final List<Game> games = Game.find("SELECT g FROM Game g WHERE g.reminder = false AND g.kickoff > ? AND g.kickoff < ?", now, until).fetch();
+                for (final Game game : games) {
+                    nextGames.put(game.getId(), game);
+                }
+
+                final Map<Long, Extra> nextExtras = new HashMap<Long, Extra>();
+                final List<Extra> extras = Extra.find("SELECT e FROM Extra e WHERE e.reminder = false AND e.ending > ? AND e.ending < ?", now, until).fetch();
+                for (final Extra extra : extras) {
+                    nextExtras.put(extra.getId(), extra);
+                }
 
-                    for (final Extra extra : nextExtras) {
-                        final ExtraTip extraTip = ExtraTip.find("byExtraAndUser", extra, user).first();
-                        if (extraTip == null) {
-                            reminderBonus.add(extra);
-                        }
+                final Map<Long, List<Game>> reminderGames = new LinkedHashMap<Long, List<Game>>();
+                final Map<Long, List<Extra>> reminderBonus = new LinkedHashMap<Long, List<Extra>>();
+                if (!nextGames.isEmpty()) {
+                    final List<Object[]> missing = JPA.em()
+                            .createQuery("SELECT u.id, g.id FROM User u, Game g WHERE u.active = true AND u.reminder = true AND g.id IN (:ids) "
+                                    + "AND NOT EXISTS (SELECT t.id FROM GameTip t WHERE t.game = g AND t.user = u) ORDER BY u.id, g.kickoff", Object[].class)
+                            .setParameter("ids", nextGames.keySet())
+                            .getResultList();
+                    group(missing, nextGames, reminderGames);
+                }
+
+                if (!nextExtras.isEmpty()) {
+                    final List<Object[]> missing = JPA.em()
+                            .createQuery("SELECT u.id, e.id FROM User u, Extra e WHERE u.active = true AND u.reminder = true AND e.id IN (:ids) "
+                                    + "AND NOT EXISTS (SELECT t.id FROM ExtraTip t WHERE t.extra = e AND t.user = u) ORDER BY u.id, e.ending", Object[].class)
+                            .setParameter("ids", nextExtras.keySet())
+                            .getResultList();
+                    group(missing, nextExtras, reminderBonus);
+                }
+
+                final List<Long> ids = new ArrayList<Long>(reminderGames.keySet());
+                for (final Long id : reminderBonus.keySet()) {
+                    if (!reminderGames.containsKey(id)) {
+                        ids.add(id);
                     }
+                }
 
-                    if ((reminderGames.size() > 0) || (reminderBonus.size() > 0)) {
-                        Mails.reminder(user, reminderGames, reminderBonus);
+                for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+                    final List<Long> batch = ids.subList(i, Math.min(i + BATCH_SIZE, ids.size()));
+                    final List<User> users = JPA.em().createQuery("SELECT u FROM User u WHERE u.id IN (:ids)", User.class).setParameter("ids", batch).getResultList();
+                    for (final User user : users) {
+                        Mails.reminder(user, getList(reminderGames, user.getId()), getList(reminderBonus, user.getId()));
+                        this.addItems(1);
                         Logger.info("Reminder send to: " + user.getEmail());
                     }
                 }
-				
-				for (final Game game : nextGames) {
-					game.setReminder(true);
-					game._save();
+
+                if (!nextGames.isEmpty()) {
+                    JPA.em().createQuery("UPDATE Game g SET g.reminder = true WHERE g.id IN (:ids)").setParameter("ids", nextGames.keySet()).executeUpdate();
+                }
+
+                if (!nextExtras.isEmpty()) {
+                    JPA.em().createQuery("UPDATE Extra e SET e.reminder = true WHERE e.id IN (:ids)").setParameter("ids", nextExtras.keySet()).executeUpdate();
                 }
 
-                for (final Extra extra : nextExtras) {
-					extra.setReminder(true);
-					extra._save();
-				}
-				
                 Logger.info("Finshed Job: ReminderJob");
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Groups the rows of an anti-join by user
+     *
+     * @param rows Pairs of user id and id of the game or extra without a tip
+     * @param entities The games or extras by id
+     * @param grouped The map to add the games or extras of each user to
+     */
+    private static <T> void group(final List<Object[]> rows, final Map<Long, T> entities, final Map<Long, List<T>> grouped) {
+        for (final Object[] row : rows) {
+            final Long userId = (Long) row[0];
+            List<T> list = grouped.get(userId);
+            if (list == null) {
+                list = new ArrayList<T>();
+                grouped.put(userId, list);
+            }
+            list.add(entities.get(row[1]));
+        }
+    }
+
+    private static <T> List<T> getList(final Map<Long, List<T>> grouped, final Long userId) {
+        final List<T> list = grouped.get(userId);
+        return (list == null) ? new ArrayList<T>() : list;
+    }
+}
@@ -1,18 +1,26 @@
 package jobs;
 
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import models.AbstractJob;
 import models.Game;
 import models.WSResults;
+
 import play.Logger;
 import play.i18n.Messages;
 import play.jobs.Every;
+import utils.AlertUtils;
 import utils.AppUtils;
+import utils.ScheduleUtils;
 import utils.WSUtils;
 
 @Every("1min")
 public class ResultsJob extends AppJob {
+    private static final int DEFAULT_DEADLINE = 45;
+    private static final long RESULT_WINDOW = 90 * 60000L;
 
     public ResultsJob() {
         this.setDescription(Messages.get("job.resultsjob.descrption"));
@@ -21,19 +29,42 @@ public class ResultsJob extends AppJob {
 
     @Override
     public void doJob() {
+        final long now = System.currentTimeMillis();
         if (AppUtils.isJobInstance()) {
+            AlertUtils.flush(now);
+        }
+
+        if (AppUtils.isJobInstance() && ScheduleUtils.isResultsDue(now) && WSUtils.isAvailable()) {
             AbstractJob job = AbstractJob.find("byName", "ResultsJob").first();
             if (job != null && job.isActive()) {
                 Logger.info("Started Job: ResultsJob");
-                final List<Game> games = Game.find("SELECT g FROM Game g WHERE ended != 1 AND ( TIMESTAMPDIFF(MINUTE,kickoff,now()) > 90 ) AND homeTeam_id != '' AND awayTeam_id != '' AND webserviceID != ''").fetch();
+                this.begin();
+                final List<Game> games = Game.find("SELECT g FROM Game g WHERE g.ended = false AND g.kickoff < ? AND g.homeTeam IS NOT NULL AND g.awayTeam IS NOT NULL AND g.webserviceID <> ''", new Date(now - RESULT_WINDOW)).fetch();
+
+                final Map<String, Game> matches = new LinkedHashMap<String, Game>();
                 for (final Game game : games) {
-                    final WSResults wsResults = WSUtils.getResultsFromWebService(game);
-                    if ((wsResults != null) && wsResults.isUpdated()) {
-                        AppUtils.setGameScoreFromWebService(game, wsResults);
+                    matches.put(game.getWebserviceID(), game);
+                }
+
+                int updated = 0;
+                this.addItems(matches.size());
+                if (!matches.isEmpty()) {
+                    final Map<String, WSResults> results = WSUtils.getResultsFromWebService(matches.keySet(), AppUtils.getConfiguration("app.results.deadline", DEFAULT_DEADLINE) * 1000L);
+                    for (final Map.Entry<String, Game> match : matches.entrySet()) {
+                        final WSResults wsResults = results.get(match.getKey());
+                        if ((wsResults != null) && wsResults.isUpdated()) {
+                            AppUtils.applyGameScoreFromWebService(match.getValue(), wsResults);
+                            updated++;
+                        }
+                    }
+
+                    if (updated > 0) {
+                        AppUtils.calculations();
                     }
                 }
-                Logger.info("Finished Job: ResultsJob");
+                ScheduleUtils.resultsPolled(now, updated > 0);
+                Logger.info("Finished Job: ResultsJob (" + updated + " of " + matches.size() + " games updated in " + (System.currentTimeMillis() - now) + " ms, next run at " + new Date(ScheduleUtils.getNextRun(System.currentTimeMillis())) + ")");
             }
         }
     }
-}
\ No newline at end of file
+}
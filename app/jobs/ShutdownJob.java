@@ -0,0 +1,19 @@
+package jobs;
+
+import play.i18n.Messages;
+import play.jobs.OnApplicationStop;
+import utils.LeaseUtils;
+
+@OnApplicationStop
+public class ShutdownJob extends AppJob {
+
+    public ShutdownJob() {
+        this.setDescription(Messages.get("job.shutdownjob.description"));
+        this.setExecuted(Messages.get("job.shutdownjob.executed"));
+    }
+
+    @Override
+    public void doJob() {
+        LeaseUtils.release();
+    }
+}
@@ -4,7 +4,15 @@ import java.util.ArrayList;
 import java.util.List;
 
 import models.AbstractJob;
+import models.Confirmation;
+import models.ConfirmationType;
+import models.User;
+import play.Logger;
+import play.db.jpa.JPA;
 import play.jobs.OnApplicationStart;
+import play.libs.Crypto;
+import utils.AppUtils;
+import utils.ValidationUtils;
 
 @OnApplicationStart
 public class StartupJob extends AppJob{
@@ -22,6 +30,7 @@ public class StartupJob extends AppJob{
         jobNames.add("PlaydayJob");
         jobNames.add("ReminderJob");
         jobNames.add("ResultsJob");
+        jobNames.add("TaskJob");
 
         for (String jobName : jobNames) {
             AbstractJob abstractJob = AbstractJob.find("byName", jobName).first();
@@ -32,5 +41,61 @@ public class StartupJob extends AppJob{
                 abstractJob._save();
             }
         }
+
+        migrateConfirmations();
+        migratePictures();
+        migrateVersions();
+    }
+
+    /**
+     * Removes the user versions which were stored by username and email before
+     * the version became a column of the user
+     */
+    private void migrateVersions() {
+        final int removed = JPA.em()
+                .createQuery("DELETE FROM DataVersion v WHERE v.name LIKE 'userVersion-%'")
+                .executeUpdate();
+        if (removed > 0) {
+            Logger.info("Removed " + removed + " user versions");
+        }
+    }
+
+    /**
+     * Sets the picture version on users whose picture was saved before the column existed
+     */
+    private void migratePictures() {
+        final List<User> users = User.find("byPictureIsNotNullAndPictureVersionIsNull").fetch();
+        for (final User user : users) {
+            user.setPicture(user.getPicture());
+            user._save();
+        }
+
+        if (!users.isEmpty()) {
+            Logger.info("Set picture version on " + users.size() + " users");
+        }
+    }
+
+    /**
+     * Sets the email hash on pending email changes and the expiry date
+     * on confirmations created before these columns existed
+     */
+    private void migrateConfirmations() {
+        final List<Confirmation> confirmations = Confirmation.find("byConfirmTypeAndConfirmHashIsNull", ConfirmationType.CHANGEUSERNAME).fetch();
+        for (final Confirmation confirmation : confirmations) {
+            confirmation.setConfirmHash(ValidationUtils.getEmailHash(Crypto.decryptAES(confirmation.getConfirmValue())));
+            confirmation._save();
+        }
+
+        if (!confirmations.isEmpty()) {
+            Logger.info("Migrated " + confirmations.size() + " pending email confirmations");
+        }
+
+        final int expired = JPA.em()
+                .createQuery("UPDATE Confirmation c SET c.expires = :expires WHERE c.expires IS NULL")
+                .setParameter("expires", AppUtils.getConfirmationExpiry())
+                .executeUpdate();
+        if (expired > 0) {
+            Logger.info("Set expiry date on " + expired + " confirmations");
+        }
     }
 }
\ No newline at end of file
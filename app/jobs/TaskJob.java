@@ -0,0 +1,43 @@
+package jobs;
+
+import java.util.Date;
+import java.util.List;
+
+import models.AbstractJob;
+import models.Task;
+import play.Logger;
+import play.i18n.Messages;
+import play.jobs.Every;
+import utils.AppUtils;
+import utils.TaskUtils;
+
+@Every("10s")
+public class TaskJob extends AppJob {
+    private static final int BATCH_SIZE = 50;
+
+    public TaskJob() {
+        this.setDescription(Messages.get("job.taskjob.description"));
+        this.setExecuted(Messages.get("job.taskjob.executed"));
+    }
+
+    @Override
+    public void doJob() {
+        if (AppUtils.isJobInstance()) {
+            AbstractJob job = AbstractJob.find("byName", "TaskJob").first();
+            if (job != null && job.isActive()) {
+                final List<Task> tasks = Task.find("SELECT t FROM Task t WHERE t.due <= ? ORDER BY t.due ASC", new Date()).fetch(BATCH_SIZE);
+                if (!tasks.isEmpty()) {
+                    this.begin();
+                    int executed = 0;
+                    for (final Task task : tasks) {
+                        if (TaskUtils.execute(task)) {
+                            executed++;
+                        }
+                    }
+                    this.addItems(executed);
+                    Logger.info("TaskJob executed " + executed + " of " + tasks.size() + " due tasks");
+                }
+            }
+        }
+    }
+}
@@ -8,6 +8,8 @@ import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Index;
+
 import play.db.jpa.Model;
 
 @Entity
@@ -16,7 +18,8 @@ public class Confirmation extends Model{
 	@ManyToOne
 	private User user;
 
-	@Column(nullable=false)
+	@Index(name="idx_confirmations_token")
+	@Column(nullable=false, unique=true)
 	private String token;
 
 	@Column(nullable=false)
@@ -26,9 +29,15 @@ public class Confirmation extends Model{
 	@Column(nullable=false)
 	private String confirmValue;
 
+	@Index(name="idx_confirmations_confirmhash")
+	private String confirmHash;
+
 	@Column(nullable=false)
 	private Date created;
 
+	@Index(name="idx_confirmations_expires")
+	private Date expires;
+
 	public User getUser() {
 		return user;
 	}
@@ -61,6 +70,14 @@ public class Confirmation extends Model{
 		this.confirmValue = confirmValue;
 	}
 
+	public String getConfirmHash() {
+		return confirmHash;
+	}
+
+	public void setConfirmHash(String confirmHash) {
+		this.confirmHash = confirmHash;
+	}
+
 	public Date getCreated() {
 		return created;
 	}
@@ -68,4 +85,12 @@ public class Confirmation extends Model{
 	public void setCreated(Date created) {
 		this.created = created;
 	}
+
+	public Date getExpires() {
+		return expires;
+	}
+
+	public void setExpires(Date expires) {
+		this.expires = expires;
+	}
 }
\ No newline at end of file
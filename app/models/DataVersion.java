@@ -0,0 +1,33 @@
+package models;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+import play.db.jpa.Model;
+
+@Entity
+@Table(name="rudeltippen_data_versions")
+public class DataVersion extends Model{
+	@Column(unique=true, nullable=false)
+	private String name;
+
+	@Column(nullable=false)
+	private long version;
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+}
@@ -4,10 +4,15 @@ import javax.persistence.Entity;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Index;
+
 import play.db.jpa.Model;
 
 @Entity
 @Table(name="rudeltippen_extratipps")
+@org.hibernate.annotations.Table(appliesTo = "rudeltippen_extratipps", indexes = {
+		@Index(name = "idx_extratipps_extra_user", columnNames = {"extra_id", "user_id"})
+})
 public class ExtraTip extends Model{
 	@ManyToOne
 	private User user;
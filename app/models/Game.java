@@ -11,12 +11,17 @@ import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
 import org.apache.commons.lang.StringUtils;
+import org.hibernate.annotations.Index;
 
 import play.db.jpa.Model;
 import utils.AppUtils;
 
 @Entity
 @Table(name="rudeltippen_games")
+@org.hibernate.annotations.Table(appliesTo = "rudeltippen_games", indexes = {
+		@Index(name = "idx_games_ended_kickoff", columnNames = {"ended", "kickoff"}),
+		@Index(name = "idx_games_informed_kickoff", columnNames = {"informed", "kickoff"})
+})
 public class Game extends Model{
 	@ManyToOne
 	private Team homeTeam;
@@ -7,10 +7,15 @@ import javax.persistence.Entity;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Index;
+
 import play.db.jpa.Model;
 
 @Entity
 @Table(name="rudeltippen_gametipps")
+@org.hibernate.annotations.Table(appliesTo = "rudeltippen_gametipps", indexes = {
+		@Index(name = "idx_gametipps_game_user", columnNames = {"game_id", "user_id"})
+})
 public class GameTip extends Model{
 	@ManyToOne
 	private User user;
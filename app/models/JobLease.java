@@ -0,0 +1,46 @@
+package models;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+import play.db.jpa.Model;
+
+@Entity
+@Table(name="rudeltippen_job_leases")
+public class JobLease extends Model{
+	@Column(unique=true, nullable=false, length=64)
+	private String name;
+
+	@Column(nullable=false, length=128)
+	private String owner;
+
+	@Column(nullable=false)
+	private Date expires;
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public String getOwner() {
+		return owner;
+	}
+
+	public void setOwner(String owner) {
+		this.owner = owner;
+	}
+
+	public Date getExpires() {
+		return expires;
+	}
+
+	public void setExpires(Date expires) {
+		this.expires = expires;
+	}
+}
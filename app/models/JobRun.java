@@ -0,0 +1,93 @@
+package models;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.Index;
+
+import play.db.jpa.Model;
+
+@Entity
+@Table(name="rudeltippen_job_runs")
+@org.hibernate.annotations.Table(appliesTo = "rudeltippen_job_runs", indexes = {
+		@Index(name = "idx_job_runs_name_started", columnNames = {"name", "started"})
+})
+public class JobRun extends Model{
+	@Column(nullable=false, length=64)
+	private String name;
+
+	@Column(nullable=false, length=128)
+	private String node;
+
+	@Index(name="idx_job_runs_started")
+	@Column(nullable=false)
+	private Date started;
+
+	@Column(nullable=false)
+	private Date finished;
+
+	private long duration;
+	private int items;
+
+	@Column(length=255)
+	private String error;
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public String getNode() {
+		return node;
+	}
+
+	public void setNode(String node) {
+		this.node = node;
+	}
+
+	public Date getStarted() {
+		return started;
+	}
+
+	public void setStarted(Date started) {
+		this.started = started;
+	}
+
+	public Date getFinished() {
+		return finished;
+	}
+
+	public void setFinished(Date finished) {
+		this.finished = finished;
+	}
+
+	public long getDuration() {
+		return duration;
+	}
+
+	public void setDuration(long duration) {
+		this.duration = duration;
+	}
+
+	public int getItems() {
+		return items;
+	}
+
+	public void setItems(int items) {
+		this.items = items;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+}
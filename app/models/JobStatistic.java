@@ -0,0 +1,79 @@
+package models;
+
+import java.util.Date;
+
+/**
+ * Aggregated run data of a job for the admin page, durations are in milliseconds
+ */
+public class JobStatistic {
+    private final String name;
+    private final int runs;
+    private final int errors;
+    private final int overlaps;
+    private final long items;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long max;
+    private final Date lastStarted;
+    private final String lastNode;
+
+    public JobStatistic(final String name, final int runs, final int errors, final int overlaps, final long items,
+            final long p50, final long p90, final long p99, final long max, final Date lastStarted, final String lastNode) {
+        this.name = name;
+        this.runs = runs;
+        this.errors = errors;
+        this.overlaps = overlaps;
+        this.items = items;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.max = max;
+        this.lastStarted = lastStarted;
+        this.lastNode = lastNode;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getRuns() {
+        return this.runs;
+    }
+
+    public int getErrors() {
+        return this.errors;
+    }
+
+    public int getOverlaps() {
+        return this.overlaps;
+    }
+
+    public long getItems() {
+        return this.items;
+    }
+
+    public long getP50() {
+        return this.p50;
+    }
+
+    public long getP90() {
+        return this.p90;
+    }
+
+    public long getP99() {
+        return this.p99;
+    }
+
+    public long getMax() {
+        return this.max;
+    }
+
+    public Date getLastStarted() {
+        return this.lastStarted;
+    }
+
+    public String getLastNode() {
+        return this.lastNode;
+    }
+}
@@ -0,0 +1,106 @@
+package models;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.Index;
+
+import play.db.jpa.Model;
+
+@Entity
+@Table(name="rudeltippen_tasks")
+public class Task extends Model{
+	@Column(nullable=false)
+	private TaskType taskType;
+
+	@Column(nullable=false)
+	private long userId;
+
+	private long recipientId;
+	private String token;
+	private ConfirmationType confirmType;
+	private String language;
+	private int attempts;
+
+	@Column(nullable=false)
+	private Date created;
+
+	@Index(name="idx_tasks_due")
+	@Column(nullable=false)
+	private Date due;
+
+	public TaskType getTaskType() {
+		return taskType;
+	}
+
+	public void setTaskType(TaskType taskType) {
+		this.taskType = taskType;
+	}
+
+	public long getUserId() {
+		return userId;
+	}
+
+	public void setUserId(long userId) {
+		this.userId = userId;
+	}
+
+	public long getRecipientId() {
+		return recipientId;
+	}
+
+	public void setRecipientId(long recipientId) {
+		this.recipientId = recipientId;
+	}
+
+	public String getToken() {
+		return token;
+	}
+
+	public void setToken(String token) {
+		this.token = token;
+	}
+
+	public ConfirmationType getConfirmType() {
+		return confirmType;
+	}
+
+	public void setConfirmType(ConfirmationType confirmType) {
+		this.confirmType = confirmType;
+	}
+
+	public String getLanguage() {
+		return language;
+	}
+
+	public void setLanguage(String language) {
+		this.language = language;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	public Date getCreated() {
+		return created;
+	}
+
+	public void setCreated(Date created) {
+		this.created = created;
+	}
+
+	public Date getDue() {
+		return due;
+	}
+
+	public void setDue(Date due) {
+		this.due = due;
+	}
+}
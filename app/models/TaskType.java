@@ -0,0 +1,7 @@
+package models;
+
+public enum TaskType {
+    CONFIRMATIONMAIL,
+    NEWUSERMAIL,
+    GRAVATAR
+}
@@ -11,12 +11,19 @@ import javax.persistence.Lob;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Index;
+
 import models.statistic.ResultStatistic;
 import models.statistic.UserStatistic;
 import play.db.jpa.Model;
+import play.libs.Codec;
 
 @Entity
 @Table(name = "rudeltippen_users")
+@org.hibernate.annotations.Table(appliesTo = "rudeltippen_users", indexes = {
+        @Index(name = "idx_users_active_place_id", columnNames = {"active", "place", "id"}),
+        @Index(name = "idx_users_email", columnNames = {"email"})
+})
 public class User extends Model {
     @Column(nullable = false)
     private String userpass;
@@ -36,9 +43,15 @@ public class User extends Model {
     @Lob
     private String picture;
 
+    @Column(length = 32)
+    private String pictureVersion;
+
     @Lob
     private String pictureLarge;
 
+    @Column(nullable = false)
+    private long dataVersion;
+
     @OneToMany(mappedBy = "user", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     private List<GameTip> gameTips;
 
@@ -107,8 +120,22 @@ public class User extends Model {
         return this.picture;
     }
 
+    /**
+     * Sets the small profile picture and the version used in its URL
+     *
+     * @param picture The picture as data URI, null to remove the picture
+     */
     public void setPicture(final String picture) {
         this.picture = picture;
+        this.pictureVersion = (picture == null) ? null : Codec.hexMD5(picture);
+    }
+
+    public String getPictureVersion() {
+        return this.pictureVersion;
+    }
+
+    public long getDataVersion() {
+        return this.dataVersion;
     }
 
     public String getPictureLarge() {
@@ -0,0 +1,93 @@
+package models;
+
+import java.util.Date;
+
+/**
+ * Read-only projection of a user for list pages, which does
+ * not contain the password hash and the profile pictures
+ */
+public class UserSummary {
+    public static final String SELECT = "SELECT new models.UserSummary(u.id, u.username, u.email, u.registered, u.active, u.admin, "
+            + "u.place, u.previousPlace, u.tipPoints, u.extraPoints, u.points, u.pictureVersion) FROM User u";
+
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final Date registered;
+    private final boolean active;
+    private final boolean admin;
+    private final int place;
+    private final int previousPlace;
+    private final int tipPoints;
+    private final int extraPoints;
+    private final int points;
+    private final String pictureVersion;
+
+    public UserSummary(final Long id, final String username, final String email, final Date registered, final boolean active, final boolean admin,
+            final int place, final int previousPlace, final int tipPoints, final int extraPoints, final int points, final String pictureVersion) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.registered = registered;
+        this.active = active;
+        this.admin = admin;
+        this.place = place;
+        this.previousPlace = previousPlace;
+        this.tipPoints = tipPoints;
+        this.extraPoints = extraPoints;
+        this.points = points;
+        this.pictureVersion = pictureVersion;
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public String getUsername() {
+        return this.username;
+    }
+
+    public String getEmail() {
+        return this.email;
+    }
+
+    public Date getRegistered() {
+        return this.registered;
+    }
+
+    public boolean isActive() {
+        return this.active;
+    }
+
+    public boolean isAdmin() {
+        return this.admin;
+    }
+
+    public int getPlace() {
+        return this.place;
+    }
+
+    public int getPreviousPlace() {
+        return this.previousPlace;
+    }
+
+    public int getTipPoints() {
+        return this.tipPoints;
+    }
+
+    public int getExtraPoints() {
+        return this.extraPoints;
+    }
+
+    public int getPoints() {
+        return this.points;
+    }
+
+    public boolean hasPicture() {
+        return this.pictureVersion != null;
+    }
+
+    public String getPictureVersion() {
+        return this.pictureVersion;
+    }
+}
@@ -0,0 +1,62 @@
+package models;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+public class WSMatch {
+	private String matchID;
+	private Date kickoff;
+	private String homeTeamID;
+	private String awayTeamID;
+	private boolean finished;
+	private Map<String, WSResult> wsResult = new HashMap<String, WSResult>();
+
+	public String getMatchID() {
+		return matchID;
+	}
+
+	public void setMatchID(String matchID) {
+		this.matchID = matchID;
+	}
+
+	public Date getKickoff() {
+		return kickoff;
+	}
+
+	public void setKickoff(Date kickoff) {
+		this.kickoff = kickoff;
+	}
+
+	public String getHomeTeamID() {
+		return homeTeamID;
+	}
+
+	public void setHomeTeamID(String homeTeamID) {
+		this.homeTeamID = homeTeamID;
+	}
+
+	public String getAwayTeamID() {
+		return awayTeamID;
+	}
+
+	public void setAwayTeamID(String awayTeamID) {
+		this.awayTeamID = awayTeamID;
+	}
+
+	public boolean isFinished() {
+		return finished;
+	}
+
+	public void setFinished(boolean finished) {
+		this.finished = finished;
+	}
+
+	public Map<String, WSResult> getWsResult() {
+		return wsResult;
+	}
+
+	public void setWsResult(Map<String, WSResult> wsResult) {
+		this.wsResult = wsResult;
+	}
+}
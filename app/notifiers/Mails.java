@@ -1,6 +1,7 @@
 package notifiers;
 
 import java.util.List;
+import java.util.concurrent.Future;
 
 import models.ConfirmationType;
 import models.Extra;
@@ -38,7 +39,7 @@ public class Mails extends Mailer {
 		}
 	}
 
-	public static void confirm(final User user, final String token, final ConfirmationType confirmationType) {
+	public static Future<Boolean> confirm(final User user, final String token, final ConfirmationType confirmationType) {
 		final Settings settings = AppUtils.getSettings();
 		final String appUrl = Play.configuration.getProperty("app.register.url");
 		final String replyto = Play.configuration.getProperty("mailservice.replyto");
@@ -67,13 +68,14 @@ public class Mails extends Mailer {
 			setFrom(from);
 			addRecipient(user.getEmail());
 			setSubject(StringEscapeUtils.unescapeHtml("[" + settings.getGameName() + "] " + subject));
-			send(user, token, appUrl, message);
-		} else {
-			Logger.error("Tryed to sent confirmation e-mail, but user or confirmType was null or recipient e-mail was invalid.");
+			return send(user, token, appUrl, message);
 		}
+
+		Logger.error("Tryed to sent confirmation e-mail, but user or confirmType was null or recipient e-mail was invalid.");
+		return null;
 	}
 
-	public static void newuser(final User user, final User admin) {
+	public static Future<Boolean> newuser(final User user, final User admin) {
 		final Settings settings = AppUtils.getSettings();
 		final String replyto = Play.configuration.getProperty("mailservice.replyto");
 		final String from = Play.configuration.getProperty("mailservice.from");
@@ -83,13 +85,14 @@ public class Mails extends Mailer {
 			setReplyTo(replyto);
 			addRecipient(admin.getEmail());
 			setSubject(StringEscapeUtils.unescapeHtml("[" + settings.getGameName() + "] " + Messages.get("mails.subject.newuser")));
-			send(user, settings);
-		} else {
-			Logger.error("Tryed to sent new user e-mail to admin, but recipient was invalid or user was null.");
+			return send(user, settings);
 		}
+
+		Logger.error("Tryed to sent new user e-mail to admin, but recipient was invalid or user was null.");
+		return null;
 	}
 
-	public static void error(final String response, final String recipient) {
+	public static Future<Boolean> error(final String response, final String recipient) {
 		final Settings settings = AppUtils.getSettings();
 		final String from = Play.configuration.getProperty("mailservice.from");
 		final String replyto = Play.configuration.getProperty("mailservice.replyto");
@@ -99,10 +102,11 @@ public class Mails extends Mailer {
 			setFrom(from);
 			addRecipient(recipient);
 			setSubject(StringEscapeUtils.unescapeHtml("[" + settings.getGameName() + "] " + Messages.get("mails.subject.updatefailed")));
-			send(response);
-		} else {
-			Logger.error("Tryed to sent info on webservice, but recipient was invalid or response was null.");
+			return send(response);
 		}
+
+		Logger.error("Tryed to sent info on webservice, but recipient was invalid or response was null.");
+		return null;
 	}
 
 	public static void notifications(final String subject, String notification, final User user) {
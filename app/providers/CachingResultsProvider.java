@@ -0,0 +1,205 @@
+package providers;
+
+import interfaces.ResultsProvider;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import models.WSMatch;
+import models.WSResults;
+
+/**
+ * Bounded cache in front of a results provider. Each response is kept for its
+ * freshness window: results of running matches for a short time, results of
+ * finished matches and kickoffs for a long time. Expired kickoffs of a playday are
+ * revalidated with the last change date of the playday, if the upstream tracks it.
+ * The last change date is only requested for expired entries, not on a cold miss
+ */
+public class CachingResultsProvider implements ResultsProvider {
+	private final ResultsProvider delegate;
+	private final Map<String, Entry> entries;
+	private final long resultsTtl;
+	private final long kickoffsTtl;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong revalidations = new AtomicLong();
+
+	/**
+	 * @param delegate The provider to load missing or expired entries from
+	 * @param maxSize The maximum number of cached responses
+	 * @param resultsTtl The time in milliseconds the results of a running match are fresh
+	 * @param kickoffsTtl The time in milliseconds kickoffs and results of finished matches are fresh
+	 */
+	public CachingResultsProvider(final ResultsProvider delegate, final int maxSize, final long resultsTtl, final long kickoffsTtl) {
+		this.delegate = delegate;
+		this.entries = new ResponseCache(maxSize);
+		this.resultsTtl = resultsTtl;
+		this.kickoffsTtl = kickoffsTtl;
+	}
+
+	@Override
+	public WSResults getResults(final String matchID) throws Exception {
+		final String key = "results-" + matchID;
+		WSResults wsResults = (WSResults) getFresh(key);
+		if (wsResults == null) {
+			wsResults = this.delegate.getResults(matchID);
+			if (wsResults != null) {
+				put(key, wsResults, wsResults.isUpdated() ? this.kickoffsTtl : this.resultsTtl, null);
+			}
+		}
+
+		return wsResults;
+	}
+
+	@Override
+	public Date getKickoff(final String matchID) throws Exception {
+		final String key = "kickoff-" + matchID;
+		Date kickoff = (Date) getFresh(key);
+		if (kickoff == null) {
+			kickoff = this.delegate.getKickoff(matchID);
+			if (kickoff != null) {
+				put(key, kickoff, this.kickoffsTtl, null);
+			}
+		}
+
+		return kickoff;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Map<String, Date> getKickoffs(final int playday, final String leagueShortcut, final String leagueSaison) throws Exception {
+		final String key = "kickoffs-" + leagueShortcut + "-" + leagueSaison + "-" + playday;
+		Map<String, Date> kickoffs = (Map<String, Date>) getFresh(key);
+		if (kickoffs != null) {
+			return kickoffs;
+		}
+
+		Date lastChange = null;
+		final Entry expired = get(key);
+		if (expired != null) {
+			lastChange = getLastChange(playday, leagueShortcut, leagueSaison);
+			if ((expired.lastChange != null) && expired.lastChange.equals(lastChange)) {
+				this.revalidations.incrementAndGet();
+				put(key, expired.value, this.kickoffsTtl, lastChange);
+				return (Map<String, Date>) expired.value;
+			}
+		}
+
+		kickoffs = this.delegate.getKickoffs(playday, leagueShortcut, leagueSaison);
+		put(key, kickoffs, this.kickoffsTtl, lastChange);
+
+		return kickoffs;
+	}
+
+	/**
+	 * Loads the matches of a playday without caching them, as they are only
+	 * requested once when setting up a season
+	 */
+	@Override
+	public List<WSMatch> getMatches(final int playday, final String leagueShortcut, final String leagueSaison) throws Exception {
+		return this.delegate.getMatches(playday, leagueShortcut, leagueSaison);
+	}
+
+	@Override
+	public Date getLastChange(final int playday, final String leagueShortcut, final String leagueSaison) {
+		try {
+			return this.delegate.getLastChange(playday, leagueShortcut, leagueSaison);
+		} catch (final Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Removes all cached responses, e.g. after an admin changed a webservice ID
+	 */
+	public void clear() {
+		synchronized (this.entries) {
+			this.entries.clear();
+		}
+	}
+
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	public long getRevalidations() {
+		return this.revalidations.get();
+	}
+
+	public int getSize() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	/**
+	 * Returns the share of requests answered from the cache, counting
+	 * revalidated entries as hits
+	 *
+	 * @return The hit ratio in percent, 0 if there were no requests yet
+	 */
+	public int getHitRatio() {
+		final long total = this.hits.get() + this.misses.get();
+
+		return (total == 0) ? 0 : (int) (((this.hits.get() + this.revalidations.get()) * 100) / total);
+	}
+
+	private Object getFresh(final String key) {
+		final Entry entry = get(key);
+		if ((entry != null) && (entry.expires > System.currentTimeMillis())) {
+			this.hits.incrementAndGet();
+			return entry.value;
+		}
+		this.misses.incrementAndGet();
+
+		return null;
+	}
+
+	private Entry get(final String key) {
+		synchronized (this.entries) {
+			return this.entries.get(key);
+		}
+	}
+
+	private void put(final String key, final Object value, final long ttl, final Date lastChange) {
+		if ((value != null) && (ttl > 0)) {
+			synchronized (this.entries) {
+				this.entries.put(key, new Entry(value, System.currentTimeMillis() + ttl, lastChange));
+			}
+		}
+	}
+
+	private static class Entry {
+		private final Object value;
+		private final long expires;
+		private final Date lastChange;
+
+		Entry(final Object value, final long expires, final Date lastChange) {
+			this.value = value;
+			this.expires = expires;
+			this.lastChange = lastChange;
+		}
+	}
+
+	private static class ResponseCache extends LinkedHashMap<String, Entry> {
+		private static final long serialVersionUID = -6024172935627359402L;
+		private final int maxSize;
+
+		ResponseCache(final int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+			return size() > this.maxSize;
+		}
+	}
+}
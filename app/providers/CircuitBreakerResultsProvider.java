@@ -0,0 +1,109 @@
+package providers;
+
+import interfaces.ResultsProvider;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import models.WSMatch;
+import models.WSResults;
+
+import play.Logger;
+import utils.AlertUtils;
+import utils.CircuitBreaker;
+
+/**
+ * Guards the requests to the upstream provider with a circuit breaker and records
+ * their outcome for the digest to the admins. Placed below the response cache, so
+ * only requests which actually reach the upstream are counted. While the breaker is
+ * open, all methods return null without sending a request
+ */
+public class CircuitBreakerResultsProvider implements ResultsProvider {
+	private final ResultsProvider delegate;
+	private final CircuitBreaker breaker;
+
+	/**
+	 * @param delegate The upstream provider
+	 * @param breaker The circuit breaker recording the outcome of each request
+	 */
+	public CircuitBreakerResultsProvider(final ResultsProvider delegate, final CircuitBreaker breaker) {
+		this.delegate = delegate;
+		this.breaker = breaker;
+	}
+
+	@Override
+	public WSResults getResults(final String matchID) throws Exception {
+		return request(new Callable<WSResults>() {
+			@Override
+			public WSResults call() throws Exception {
+				return delegate.getResults(matchID);
+			}
+		});
+	}
+
+	@Override
+	public Date getKickoff(final String matchID) throws Exception {
+		return request(new Callable<Date>() {
+			@Override
+			public Date call() throws Exception {
+				return delegate.getKickoff(matchID);
+			}
+		});
+	}
+
+	@Override
+	public Map<String, Date> getKickoffs(final int playday, final String leagueShortcut, final String leagueSaison) throws Exception {
+		return request(new Callable<Map<String, Date>>() {
+			@Override
+			public Map<String, Date> call() throws Exception {
+				return delegate.getKickoffs(playday, leagueShortcut, leagueSaison);
+			}
+		});
+	}
+
+	@Override
+	public List<WSMatch> getMatches(final int playday, final String leagueShortcut, final String leagueSaison) throws Exception {
+		return request(new Callable<List<WSMatch>>() {
+			@Override
+			public List<WSMatch> call() throws Exception {
+				return delegate.getMatches(playday, leagueShortcut, leagueSaison);
+			}
+		});
+	}
+
+	@Override
+	public Date getLastChange(final int playday, final String leagueShortcut, final String leagueSaison) throws Exception {
+		return request(new Callable<Date>() {
+			@Override
+			public Date call() throws Exception {
+				return delegate.getLastChange(playday, leagueShortcut, leagueSaison);
+			}
+		});
+	}
+
+	private <T> T request(final Callable<T> request) throws Exception {
+		if (!this.breaker.allowRequest(System.currentTimeMillis())) {
+			return null;
+		}
+
+		try {
+			final T response = request.call();
+			if (this.breaker.success()) {
+				Logger.info("WebService circuit breaker closed");
+				AlertUtils.alert("Circuit breaker closed, the WebService responds again");
+			}
+			AlertUtils.success();
+
+			return response;
+		} catch (final Exception e) {
+			AlertUtils.failure(String.valueOf(e));
+			if (this.breaker.failure(System.currentTimeMillis())) {
+				Logger.warn("WebService circuit breaker opened for " + (this.breaker.getOpenTime() / 1000) + " s");
+				AlertUtils.alert("Circuit breaker opened, no requests for " + (this.breaker.getOpenTime() / 1000) + " s");
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package providers;
+
+import interfaces.AppConstants;
+import interfaces.ResultsProvider;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import models.WSMatch;
+import models.WSResult;
+import models.WSResults;
+
+import org.apache.commons.lang.StringUtils;
+
+import play.libs.WS;
+import play.libs.WS.HttpResponse;
+import utils.SetupUtils;
+import utils.WSUtils;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Results from the OpenLigaDB JSON API, e.g. GET /getmatchdata/{matchID},
+ * GET /getmatchdata/{league}/{season}/{playday} and GET /getlastchangedate/{league}/{season}/{playday}
+ */
+public class JsonResultsProvider implements ResultsProvider, AppConstants {
+	private final String url;
+
+	public JsonResultsProvider(final String url) {
+		this.url = StringUtils.removeEnd(url, "/");
+	}
+
+	@Override
+	public WSResults getResults(final String matchID) {
+		return getResults(get("/getmatchdata/" + matchID).getAsJsonObject());
+	}
+
+	@Override
+	public Date getKickoff(final String matchID) {
+		return getKickoff(get("/getmatchdata/" + matchID).getAsJsonObject());
+	}
+
+	@Override
+	public Map<String, Date> getKickoffs(final int playday, final String leagueShortcut, final String leagueSaison) {
+		final Map<String, Date> kickoffs = new HashMap<String, Date>();
+		for (final WSMatch match : getMatches(playday, leagueShortcut, leagueSaison)) {
+			if ((match.getMatchID() != null) && (match.getKickoff() != null)) {
+				kickoffs.put(match.getMatchID(), match.getKickoff());
+			}
+		}
+
+		return kickoffs;
+	}
+
+	@Override
+	public List<WSMatch> getMatches(final int playday, final String leagueShortcut, final String leagueSaison) {
+		final List<WSMatch> matches = new ArrayList<WSMatch>();
+		for (final JsonElement element : get("/getmatchdata/" + leagueShortcut + "/" + leagueSaison + "/" + playday).getAsJsonArray()) {
+			final JsonObject match = element.getAsJsonObject();
+			final WSResults wsResults = getResults(match);
+			final WSMatch wsMatch = new WSMatch();
+			wsMatch.setMatchID(match.has("matchID") ? match.get("matchID").getAsString() : null);
+			wsMatch.setKickoff(getKickoff(match));
+			wsMatch.setHomeTeamID(getTeamID(match, "team1"));
+			wsMatch.setAwayTeamID(getTeamID(match, "team2"));
+			wsMatch.setFinished(wsResults.isUpdated());
+			if (wsResults.isUpdated()) {
+				wsMatch.setWsResult(wsResults.getWsResult());
+			}
+			matches.add(wsMatch);
+		}
+
+		return matches;
+	}
+
+	@Override
+	public Date getLastChange(final int playday, final String leagueShortcut, final String leagueSaison) {
+		final JsonElement lastChange = get("/getlastchangedate/" + leagueShortcut + "/" + leagueSaison + "/" + playday);
+		return ((lastChange != null) && lastChange.isJsonPrimitive()) ? SetupUtils.parseKickoff(lastChange.getAsString()) : null;
+	}
+
+	public static WSResults getResults(final JsonObject match) {
+		final WSResults wsResults = new WSResults();
+		wsResults.setUpdated(false);
+		if (match.has("matchIsFinished") && match.get("matchIsFinished").getAsBoolean() && match.has("matchResults")) {
+			final Map<String, WSResult> resultsMap = new HashMap<String, WSResult>();
+			for (final JsonElement element : match.getAsJsonArray("matchResults")) {
+				final JsonObject result = element.getAsJsonObject();
+				final String key = result.has("resultName") ? WSUtils.getResultKey(result.get("resultName").getAsString()) : null;
+				if (StringUtils.isNotBlank(key)) {
+					final WSResult wsResult = new WSResult();
+					wsResult.setHomeScore(result.get("pointsTeam1").getAsString());
+					wsResult.setAwayScore(result.get("pointsTeam2").getAsString());
+					resultsMap.put(key, wsResult);
+				}
+			}
+			wsResults.setWsResult(resultsMap);
+			wsResults.setUpdated(true);
+		}
+
+		return wsResults;
+	}
+
+	private static Date getKickoff(final JsonObject match) {
+		return match.has("matchDateTimeUTC") ? SetupUtils.parseKickoff(match.get("matchDateTimeUTC").getAsString()) : null;
+	}
+
+	private static String getTeamID(final JsonObject match, final String team) {
+		if (match.has(team) && match.get(team).isJsonObject() && match.getAsJsonObject(team).has("teamId")) {
+			return match.getAsJsonObject(team).get("teamId").getAsString();
+		}
+
+		return null;
+	}
+
+	private JsonElement get(final String path) {
+		final HttpResponse response = WS.url(this.url + path).timeout(WSUtils.getTimeout()).setHeader("Accept", "application/json").get();
+		if (!response.success()) {
+			throw new IllegalStateException("WebService returned status " + response.getStatus() + " for " + path);
+		}
+
+		return response.getJson();
+	}
+}
@@ -0,0 +1,122 @@
+package providers;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import models.WSMatch;
+import models.WSResult;
+
+import org.apache.commons.lang.StringUtils;
+
+import utils.SetupUtils;
+import utils.WSUtils;
+
+/**
+ * Streaming parser for the responses of the OpenLigaDB SOAP WebService. Reads only
+ * the match ID, kickoff, teams, finished flag and results of each match from the
+ * stream, without building a DOM
+ */
+public class SoapParser {
+	private static final XMLInputFactory factory = createFactory();
+
+	/**
+	 * Parses all matches of a GetMatchByMatchID or GetMatchdataByGroupLeagueSaison response
+	 *
+	 * @param inputStream The response stream, closed after parsing
+	 * @return The matches in the order of the response
+	 * @throws XMLStreamException if the response is not valid XML
+	 */
+	public static List<WSMatch> getMatches(final InputStream inputStream) throws XMLStreamException {
+		final List<WSMatch> matches = new ArrayList<WSMatch>();
+		final XMLStreamReader reader = factory.createXMLStreamReader(inputStream);
+		try {
+			WSMatch match = null;
+			WSResult result = null;
+			String resultName = null;
+			while (reader.hasNext()) {
+				final int event = reader.next();
+				if ((event == XMLStreamConstants.END_ELEMENT) && (result != null) && "matchResult".equals(reader.getLocalName())) {
+					final String key = WSUtils.getResultKey(StringUtils.trim(resultName));
+					if (StringUtils.isNotBlank(key)) {
+						match.getWsResult().put(key, result);
+					}
+					result = null;
+				}
+				if (event != XMLStreamConstants.START_ELEMENT) {
+					continue;
+				}
+
+				final String name = reader.getLocalName();
+				if ("GetMatchByMatchIDResult".equals(name) || "Matchdata".equals(name)) {
+					match = new WSMatch();
+					matches.add(match);
+				} else if (match == null) {
+					continue;
+				} else if ("matchResult".equals(name)) {
+					result = new WSResult();
+					resultName = null;
+				} else if (result != null) {
+					if ("resultName".equals(name)) {
+						resultName = reader.getElementText();
+					} else if ("pointsTeam1".equals(name)) {
+						result.setHomeScore(reader.getElementText().trim());
+					} else if ("pointsTeam2".equals(name)) {
+						result.setAwayScore(reader.getElementText().trim());
+					}
+				} else if ("matchID".equals(name)) {
+					match.setMatchID(reader.getElementText().trim());
+				} else if ("matchDateTimeUTC".equals(name)) {
+					match.setKickoff(SetupUtils.parseKickoff(reader.getElementText()));
+				} else if ("idTeam1".equals(name)) {
+					match.setHomeTeamID(reader.getElementText().trim());
+				} else if ("idTeam2".equals(name)) {
+					match.setAwayTeamID(reader.getElementText().trim());
+				} else if ("matchIsFinished".equals(name)) {
+					match.setFinished("true".equalsIgnoreCase(reader.getElementText().trim()));
+				}
+			}
+		} finally {
+			reader.close();
+		}
+
+		return matches;
+	}
+
+	/**
+	 * Reads the text of the first element with the given name
+	 *
+	 * @param inputStream The response stream, closed after parsing
+	 * @param element The local name of the element
+	 * @return The text of the element, null if the response does not contain the element
+	 * @throws XMLStreamException if the response is not valid XML
+	 */
+	public static String getText(final InputStream inputStream, final String element) throws XMLStreamException {
+		final XMLStreamReader reader = factory.createXMLStreamReader(inputStream);
+		try {
+			while (reader.hasNext()) {
+				if ((reader.next() == XMLStreamConstants.START_ELEMENT) && element.equals(reader.getLocalName())) {
+					return reader.getElementText().trim();
+				}
+			}
+		} finally {
+			reader.close();
+		}
+
+		return null;
+	}
+
+	private static XMLInputFactory createFactory() {
+		final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+		xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+		xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+		return xmlInputFactory;
+	}
+}
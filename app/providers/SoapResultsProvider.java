@@ -0,0 +1,111 @@
+package providers;
+
+import interfaces.AppConstants;
+import interfaces.ResultsProvider;
+
+import java.io.InputStream;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+
+import models.WSMatch;
+import models.WSResults;
+
+import org.apache.commons.lang.StringUtils;
+
+import play.libs.WS;
+import play.libs.WS.HttpResponse;
+import utils.SetupUtils;
+import utils.WSUtils;
+
+/**
+ * Results from the OpenLigaDB SOAP WebService
+ */
+public class SoapResultsProvider implements ResultsProvider, AppConstants {
+	private final String url;
+
+	public SoapResultsProvider(final String url) {
+		this.url = url;
+	}
+
+	@Override
+	public WSResults getResults(final String matchID) {
+		final WSResults wsResults = new WSResults();
+		wsResults.setUpdated(false);
+
+		final List<WSMatch> matches = getMatches("GetMatchByMatchID", "<MatchID>" + matchID + "</MatchID>");
+		if (!matches.isEmpty() && matches.get(0).isFinished()) {
+			wsResults.setWsResult(matches.get(0).getWsResult());
+			wsResults.setUpdated(true);
+		}
+
+		return wsResults;
+	}
+
+	@Override
+	public Date getKickoff(final String matchID) {
+		final List<WSMatch> matches = getMatches("GetMatchByMatchID", "<MatchID>" + matchID + "</MatchID>");
+		return matches.isEmpty() ? null : matches.get(0).getKickoff();
+	}
+
+	@Override
+	public Map<String, Date> getKickoffs(final int playday, final String leagueShortcut, final String leagueSaison) {
+		final Map<String, Date> kickoffs = new HashMap<String, Date>();
+		for (final WSMatch match : getMatches(playday, leagueShortcut, leagueSaison)) {
+			if ((match.getMatchID() != null) && (match.getKickoff() != null)) {
+				kickoffs.put(match.getMatchID(), match.getKickoff());
+			}
+		}
+
+		return kickoffs;
+	}
+
+	@Override
+	public Date getLastChange(final int playday, final String leagueShortcut, final String leagueSaison) {
+		final InputStream response = post("GetLastChangeDateByGroupLeagueSaison", getGroupParameters(playday, leagueShortcut, leagueSaison));
+		try {
+			final String lastChange = SoapParser.getText(response, "GetLastChangeDateByGroupLeagueSaisonResult");
+			return StringUtils.isBlank(lastChange) ? null : SetupUtils.parseKickoff(lastChange);
+		} catch (final XMLStreamException e) {
+			throw new IllegalStateException("WebService returned an invalid response for GetLastChangeDateByGroupLeagueSaison", e);
+		}
+	}
+
+	@Override
+	public List<WSMatch> getMatches(final int playday, final String leagueShortcut, final String leagueSaison) {
+		return getMatches("GetMatchdataByGroupLeagueSaison", getGroupParameters(playday, leagueShortcut, leagueSaison));
+	}
+
+	private List<WSMatch> getMatches(final String operation, final String parameters) {
+		try {
+			return SoapParser.getMatches(post(operation, parameters));
+		} catch (final XMLStreamException e) {
+			throw new IllegalStateException("WebService returned an invalid response for " + operation, e);
+		}
+	}
+
+	private static String getGroupParameters(final int playday, final String leagueShortcut, final String leagueSaison) {
+		return "<groupOrderID>" + playday + "</groupOrderID><leagueShortcut>" + leagueShortcut + "</leagueShortcut><leagueSaison>" + leagueSaison + "</leagueSaison>";
+	}
+
+	private InputStream post(final String operation, final String parameters) {
+		final StringBuilder buffer = new StringBuilder();
+		buffer.append("<soap12:Envelope xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\" xmlns:soap12=\"http://www.w3.org/2003/05/soap-envelope\">");
+		buffer.append("<soap12:Body>");
+		buffer.append("<" + operation + " xmlns=\"http://msiggi.de/Sportsdata/Webservices\">");
+		buffer.append(parameters);
+		buffer.append("</" + operation + ">");
+		buffer.append("</soap12:Body>");
+		buffer.append("</soap12:Envelope>");
+
+		final HttpResponse response = WS.url(this.url).timeout(WSUtils.getTimeout()).setHeader("Content-Type", WS_CONTENT_TYPE).setHeader("charset", WS_ENCODING).body(buffer.toString()).post();
+		if (!response.success()) {
+			throw new IllegalStateException("WebService returned status " + response.getStatus() + " for " + operation);
+		}
+
+		return response.getStream();
+	}
+}
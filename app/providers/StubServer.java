@@ -0,0 +1,185 @@
+package providers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+
+import play.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local HTTP server replaying recorded WebService responses, for testing and
+ * benchmarking the results ingestion without network access.
+ *
+ * SOAP requests are answered with soap/{operation}/{parameters}.xml, e.g.
+ * soap/GetMatchByMatchID/19218.xml, and JSON requests with json/{path}.json, e.g.
+ * json/getmatchdata/19218.json. If no recording exists, default.xml or default.json
+ * in the same directory is used. Every response can be delayed and a share of the
+ * requests can be answered with an error
+ */
+public class StubServer {
+	private static final Pattern OPERATION = Pattern.compile("<(\\w+) xmlns=\"http://msiggi.de/Sportsdata/Webservices\">(.*?)</\\1>", Pattern.DOTALL);
+	private static final Pattern PARAMETER = Pattern.compile("<\\w+>([^<]*)</\\w+>");
+	private static final Pattern SAFE_NAME = Pattern.compile("[\\w\\-/]+");
+	private final File fixtures;
+	private final long latency;
+	private final double errorRate;
+	private final Random random = new Random();
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong errors = new AtomicLong();
+	private HttpServer server;
+	private ExecutorService executor;
+
+	/**
+	 * @param fixtures The directory containing the recorded responses
+	 * @param latency The delay of every response in milliseconds
+	 * @param errorRate The share of requests between 0 and 1 answered with status 500
+	 */
+	public StubServer(final File fixtures, final long latency, final double errorRate) {
+		this.fixtures = fixtures;
+		this.latency = latency;
+		this.errorRate = errorRate;
+	}
+
+	/**
+	 * Starts the server on the loopback interface
+	 *
+	 * @param port The port, 0 for any free port
+	 * @throws IOException if the server can not be started
+	 */
+	public void start(final int port) throws IOException {
+		this.executor = Executors.newCachedThreadPool();
+		this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+		this.server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(final HttpExchange exchange) throws IOException {
+				respond(exchange);
+			}
+		});
+		this.server.setExecutor(this.executor);
+		this.server.start();
+		Logger.info("Started WebService stub on " + getUrl() + " with " + this.latency + " ms latency and error rate " + this.errorRate);
+	}
+
+	public void stop() {
+		if (this.server != null) {
+			this.server.stop(0);
+			this.executor.shutdownNow();
+			this.server = null;
+		}
+	}
+
+	public String getUrl() {
+		return "http://127.0.0.1:" + this.server.getAddress().getPort();
+	}
+
+	public long getRequests() {
+		return this.requests.get();
+	}
+
+	public long getErrors() {
+		return this.errors.get();
+	}
+
+	private void respond(final HttpExchange exchange) throws IOException {
+		this.requests.incrementAndGet();
+		try {
+			final String body = read(exchange.getRequestBody());
+			if (this.latency > 0) {
+				Thread.sleep(this.latency);
+			}
+
+			if (nextError()) {
+				this.errors.incrementAndGet();
+				send(exchange, 500, "text/plain", "Injected error".getBytes("UTF-8"));
+				return;
+			}
+
+			final boolean soap = "POST".equalsIgnoreCase(exchange.getRequestMethod());
+			final File fixture = soap ? getSoapFixture(body) : getJsonFixture(exchange.getRequestURI().getPath());
+			if (fixture == null) {
+				send(exchange, 404, "text/plain", "No recording".getBytes("UTF-8"));
+			} else {
+				send(exchange, 200, soap ? "application/soap+xml; charset=utf-8" : "application/json; charset=utf-8", FileUtils.readFileToByteArray(fixture));
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			exchange.sendResponseHeaders(503, -1);
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private synchronized boolean nextError() {
+		return (this.errorRate > 0) && (this.random.nextDouble() < this.errorRate);
+	}
+
+	private File getSoapFixture(final String body) {
+		final Matcher operation = OPERATION.matcher(body);
+		if (!operation.find()) {
+			return null;
+		}
+
+		final List<String> parameters = new ArrayList<String>();
+		final Matcher parameter = PARAMETER.matcher(operation.group(2));
+		while (parameter.find()) {
+			parameters.add(parameter.group(1).trim());
+		}
+
+		return getFixture("soap/" + operation.group(1), StringUtils.join(parameters, "-"), ".xml");
+	}
+
+	private File getJsonFixture(final String path) {
+		final String name = StringUtils.strip(path, "/");
+		return getFixture("json/" + StringUtils.substringBeforeLast(name, "/"), StringUtils.substringAfterLast(name, "/"), ".json");
+	}
+
+	private File getFixture(final String directory, final String name, final String extension) {
+		if (!SAFE_NAME.matcher(directory).matches()) {
+			return null;
+		}
+
+		if (SAFE_NAME.matcher(name).matches() && !name.contains("/")) {
+			final File recorded = new File(this.fixtures, directory + "/" + name + extension);
+			if (recorded.isFile()) {
+				return recorded;
+			}
+		}
+
+		final File fallback = new File(this.fixtures, directory + "/default" + extension);
+		return fallback.isFile() ? fallback : null;
+	}
+
+	private static String read(final InputStream inputStream) throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		IOUtils.copy(inputStream, buffer);
+
+		return buffer.toString("UTF-8");
+	}
+
+	private static void send(final HttpExchange exchange, final int status, final String contentType, final byte[] content) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		exchange.sendResponseHeaders(status, content.length);
+		final OutputStream outputStream = exchange.getResponseBody();
+		outputStream.write(content);
+		outputStream.close();
+	}
+}
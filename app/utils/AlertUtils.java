@@ -0,0 +1,191 @@
+package utils;
+
+import interfaces.AppConstants;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import models.User;
+import notifiers.Mails;
+
+import org.apache.commons.lang.StringUtils;
+
+import play.Logger;
+
+public class AlertUtils implements AppConstants {
+    private static final int DEFAULT_WINDOW = 60;
+    private static final int MAX_MESSAGES = 20;
+    private static final Map<String, Integer> messages = new LinkedHashMap<String, Integer>();
+    private static long requests;
+    private static long failures;
+    private static long dropped;
+    private static long since;
+    private static long lastDigest;
+
+    /**
+     * Records a successful request to the WebService
+     */
+    public static synchronized void success() {
+        if (since == 0) {
+            since = System.currentTimeMillis();
+        }
+        requests++;
+    }
+
+    /**
+     * Records a failed request to the WebService. Equal messages are counted
+     * instead of being reported separately
+     *
+     * @param message The reason of the failure, without the ID of the match
+     */
+    public static synchronized void failure(final String message) {
+        requests++;
+        failures++;
+        alert(message);
+    }
+
+    /**
+     * Records a message for the next digest without counting it as a request,
+     * e.g. a change of the circuit breaker
+     *
+     * @param message The message
+     */
+    public static synchronized void alert(final String message) {
+        if (since == 0) {
+            since = System.currentTimeMillis();
+        }
+
+        final String key = StringUtils.defaultIfEmpty(StringUtils.trim(message), "Unknown error");
+        final Integer count = messages.get(key);
+        if (count != null) {
+            messages.put(key, count + 1);
+        } else if (messages.size() < MAX_MESSAGES) {
+            messages.put(key, 1);
+        } else {
+            dropped++;
+        }
+    }
+
+    /**
+     * Returns the digest of all failures recorded since the last digest has been sent
+     *
+     * @return The digest, null if no failures have been recorded
+     */
+    public static synchronized String getDigest() {
+        if (messages.isEmpty()) {
+            return null;
+        }
+
+        final StringBuilder digest = new StringBuilder();
+        digest.append(failures).append(" of ").append(requests).append(" requests failed");
+        if (requests > 0) {
+            digest.append(" (").append((failures * 100) / requests).append(" %)");
+        }
+        digest.append(" since ").append(new Date(since)).append("\n\n");
+
+        for (final Map.Entry<String, Integer> entry : messages.entrySet()) {
+            digest.append(entry.getValue()).append("x ").append(entry.getKey()).append("\n");
+        }
+        if (dropped > 0) {
+            digest.append(dropped).append("x other errors\n");
+        }
+
+        return digest.toString();
+    }
+
+    /**
+     * Sends the digest of all recorded failures to the admins, at most once per
+     * configured window (app.alerts.window in minutes, default 60). If the digest
+     * could not be sent to any admin, the failures are recorded again for the next
+     * attempt. Must be called from a thread with database access, e.g. a job
+     *
+     * @param now The current time
+     * @return True if a digest has been sent, false otherwise
+     */
+    public static boolean flush(final long now) {
+        String digest = null;
+        Map<String, Integer> sentMessages = null;
+        long sentRequests = 0;
+        long sentFailures = 0;
+        long sentDropped = 0;
+        long sentSince = 0;
+        long previousDigest = 0;
+        synchronized (AlertUtils.class) {
+            if ((now - lastDigest) < (AppUtils.getConfiguration("app.alerts.window", DEFAULT_WINDOW) * 60000L)) {
+                return false;
+            }
+
+            digest = getDigest();
+            if (digest == null) {
+                return false;
+            }
+
+            sentMessages = new LinkedHashMap<String, Integer>(messages);
+            sentRequests = requests;
+            sentFailures = failures;
+            sentDropped = dropped;
+            sentSince = since;
+            previousDigest = lastDigest;
+            lastDigest = now;
+            reset();
+        }
+
+        int sent = 0;
+        final List<User> admins = User.find("byAdmin", true).fetch();
+        for (final User admin : admins) {
+            try {
+                final Future<Boolean> mail = Mails.error(digest, admin.getEmail());
+                if ((mail != null) && Boolean.TRUE.equals(mail.get())) {
+                    sent++;
+                }
+            } catch (final Exception e) {
+                Logger.error("Failed to send WebService failure digest to " + admin.getEmail(), e);
+            }
+        }
+
+        if (sent == 0) {
+            synchronized (AlertUtils.class) {
+                for (final Map.Entry<String, Integer> entry : sentMessages.entrySet()) {
+                    final Integer count = messages.get(entry.getKey());
+                    if (count != null) {
+                        messages.put(entry.getKey(), count + entry.getValue());
+                    } else if (messages.size() < MAX_MESSAGES) {
+                        messages.put(entry.getKey(), entry.getValue());
+                    } else {
+                        dropped += entry.getValue();
+                    }
+                }
+                requests += sentRequests;
+                failures += sentFailures;
+                dropped += sentDropped;
+                since = (since == 0) ? sentSince : Math.min(since, sentSince);
+                lastDigest = previousDigest;
+            }
+            Logger.warn("WebService failure digest could not be sent, keeping the failures for the next attempt");
+
+            return false;
+        }
+        Logger.info("Sent WebService failure digest to " + sent + " of " + admins.size() + " admins");
+
+        return true;
+    }
+
+    /**
+     * Removes all recorded failures and allows the next digest to be sent immediately
+     */
+    public static synchronized void clear() {
+        reset();
+        lastDigest = 0;
+    }
+
+    private static void reset() {
+        messages.clear();
+        requests = 0;
+        failures = 0;
+        dropped = 0;
+        since = 0;
+    }
+}
@@ -6,12 +6,18 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.persistence.TypedQuery;
+
 import models.Bracket;
 import models.Extra;
 import models.ExtraTip;
@@ -21,14 +27,15 @@ import models.Playday;
 import models.Settings;
 import models.Team;
 import models.User;
+import models.UserSummary;
 import models.WSResult;
 import models.WSResults;
 
-import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang.StringUtils;
 
 import play.Logger;
 import play.Play;
+import play.cache.Cache;
 import play.db.jpa.JPA;
 import play.i18n.Lang;
 import play.i18n.Messages;
@@ -39,6 +46,17 @@ import play.libs.WS.HttpResponse;
 import controllers.Auth.Security;
 
 public class AppUtils implements AppConstants {
+    private static final String INITIALIZED = "appInitialized";
+    private static final String CURRENT_PLAYDAY = "currentPlayday";
+    private static final String CACHE_DURATION = "10mn";
+    private static final String APP_SALT = "appSalt";
+    private static final int DEFAULT_PASSWORD_ROUNDS = 100000;
+    private static final int DEFAULT_CONFIRMATION_TTL = 48;
+    private static final int HASH_LENGTH = 64;
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
     /**
      * Loads the currents settings from database
      * @return Settings object
@@ -48,20 +66,107 @@ public class AppUtils implements AppConstants {
     }
 
     /**
-     * Hashes a given clear-text password with a given salt using 100000 rounds
+     * Reads a positive number from application.conf
+     *
+     * @param key The key of the property
+     * @param defaultValue The value if the property is not set or not a positive number
+     * @return The configured number or the default value
+     */
+    public static int getConfiguration(final String key, final int defaultValue) {
+        final String value = StringUtils.trim(Play.configuration.getProperty(key));
+        if (StringUtils.isNotBlank(value) && StringUtils.isNumeric(value)) {
+            try {
+                final int number = Integer.parseInt(value);
+                if (number > 0) {
+                    return number;
+                }
+            } catch (final NumberFormatException e) {
+                Logger.warn("Invalid value for " + key + ": " + value);
+            }
+        }
+
+        return defaultValue;
+    }
+
+    /**
+     * Hashes a given clear-text password with a given salt using the configured number
+     * of rounds (app.password.rounds, default 100000). Each round hashes the hex string
+     * of the previous round followed by app salt, password and user salt, with
+     * the digest and the buffers being reused for all rounds. This is the legacy
+     * scheme, new passwords are hashed with PasswordUtils.hash
      *
      * @param userpass The password
      * @param usersalt The salt
-     * @return SHA1 hashed string
+     * @return SHA-512 hashed string
      */
     public static String hashPassword(final String userpass, final String usersalt) {
-        final String salt = AppUtils.getSettings().getAppSalt();
-        String hash = "";
-        for (int i = 1; i <= 100000; i++) {
-            hash = DigestUtils.sha512Hex(hash + salt + userpass + usersalt);
+        return hashPassword(userpass, usersalt, getAppSalt());
+    }
+
+    /**
+     * Hashes a given clear-text password with the legacy scheme using the given app salt,
+     * which allows hashing outside of a request, where the settings can not be loaded
+     *
+     * @param userpass The password
+     * @param usersalt The salt
+     * @param appsalt The salt of the application
+     * @return SHA-512 hashed string
+     */
+    public static String hashPassword(final String userpass, final String usersalt, final String appsalt) {
+        final MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-512");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-512 is not available", e);
+        }
+
+        final byte[] suffix = (appsalt + userpass + usersalt).getBytes(UTF_8);
+        final byte[] digest = new byte[HASH_LENGTH];
+        final byte[] hex = new byte[HASH_LENGTH * 2];
+        final int rounds = getPasswordRounds();
+
+        int length = 0;
+        for (int i = 1; i <= rounds; i++) {
+            messageDigest.update(hex, 0, length);
+            messageDigest.update(suffix);
+            try {
+                messageDigest.digest(digest, 0, HASH_LENGTH);
+            } catch (final DigestException e) {
+                throw new IllegalStateException("Failed to calculate password hash", e);
+            }
+
+            for (int j = 0; j < HASH_LENGTH; j++) {
+                hex[j * 2] = HEX[(digest[j] >> 4) & 0x0f];
+                hex[(j * 2) + 1] = HEX[digest[j] & 0x0f];
+            }
+            length = hex.length;
         }
 
-        return hash;
+        return new String(hex, 0, length, US_ASCII);
+    }
+
+    /**
+     * Returns the number of rounds for hashing passwords from application.conf
+     *
+     * @return The number of rounds, 100000 if not configured
+     */
+    public static int getPasswordRounds() {
+        return getConfiguration("app.password.rounds", DEFAULT_PASSWORD_ROUNDS);
+    }
+
+    /**
+     * Returns the application salt from the application cache, loading it from the settings if not cached
+     *
+     * @return The application salt
+     */
+    public static String getAppSalt() {
+        String salt = (String) Cache.get(APP_SALT);
+        if (salt == null) {
+            salt = getSettings().getAppSalt();
+            Cache.set(APP_SALT, salt);
+        }
+
+        return salt;
     }
 
     /**
@@ -121,26 +226,19 @@ public class AppUtils implements AppConstants {
         final String username = Security.connected();
         User connectedUser = null;
         if (StringUtils.isNotBlank(username)) {
-            connectedUser = User.find("SELECT u FROM User u WHERE active = true AND username = ? OR email = ?", username, username).first();
+            connectedUser = User.find("SELECT u FROM User u WHERE active = true AND (username = ? OR email = ?)", username, username).first();
         }
 
         return connectedUser;
     }
 
     /**
-     * Checks if the current application matches the defined job instance name
+     * Checks if the current node holds the leader lease and should run the jobs
      *
      * @return true if current instance is job instance, false otherwise
      */
     public static boolean isJobInstance() {
-        boolean isInstance = false;
-        final String appName = Play.configuration.getProperty("application.name");
-        final String jobInstance = Play.configuration.getProperty("app.jobinstance");
-        if (StringUtils.isNotBlank(appName) && StringUtils.isNotBlank(jobInstance) && appName.equalsIgnoreCase(jobInstance)) {
-            isInstance = true;
-        }
-
-        return isInstance;
+        return LeaseUtils.isLeader();
     }
 
     /**
@@ -151,6 +249,8 @@ public class AppUtils implements AppConstants {
      * - Calculation of user places
      * - Calculation of playoff teams
      * - Calculation of current playdays
+     *
+     * Afterwards the data version is changed, so all cached fragments are invalidated
      */
     public static void calculations() {
         calculateBrackets();
@@ -163,6 +263,9 @@ public class AppUtils implements AppConstants {
             flushAndClear();
             calculateStatistics();
         }
+
+        CacheUtils.bumpCalculationVersion();
+        CacheUtils.bumpDataVersion();
     }
 
     /**
@@ -366,6 +469,7 @@ public class AppUtils implements AppConstants {
     private static boolean setCurrentPlayday() {
         boolean changed = false;
         final Playday currentPlayday = getCurrentPlayday();
+        final int currentNumber = (currentPlayday == null) ? 0 : currentPlayday.getNumber();
         final List<Playday> playdays = Playday.find("SELECT p FROM Playday p ORDER BY number ASC").fetch();
         for (final Playday playday : playdays) {
             if (playday.allGamesEnded()) {
@@ -378,7 +482,7 @@ public class AppUtils implements AppConstants {
             }
         }
 
-        if (currentPlayday != getCurrentPlayday()) {
+        if (currentNumber != refreshCurrentPlayday()) {
             changed = true;
             NotificationUtils.sendTopThree(currentPlayday);
         }
@@ -400,6 +504,7 @@ public class AppUtils implements AppConstants {
                 game.setAwayTeam(awayTeam);
                 game._save();
             }
+            ScheduleUtils.invalidate();
         }
     }
 
@@ -602,6 +707,7 @@ public class AppUtils implements AppConstants {
         if (!game.isEnded()) {
             NotificationUtils.sendNotfications(game);
             game.setEnded(true);
+            ScheduleUtils.invalidate();
         }
         game._save();
     }
@@ -651,6 +757,8 @@ public class AppUtils implements AppConstants {
             gameTip.setHomeScore(homeScore);
             gameTip.setAwayScore(awayScore);
             gameTip._save();
+            CacheUtils.bumpUserVersion(user);
+            CacheUtils.bumpTipsVersion();
             Logger.info("Tipp placed - " + user.getEmail() + " - " + gameTip);
         }
     }
@@ -715,12 +823,40 @@ public class AppUtils implements AppConstants {
      * @return Playday object
      */
     public static Playday getCurrentPlayday () {
+        return Playday.find("byNumber", getCurrentPlaydayNumber()).first();
+    }
+
+    /**
+     * Returns the number of the current playday from the application cache,
+     * loading it from the database if not cached. The cached value expires after
+     * ten minutes, so instances not running the jobs pick up a new playday as well
+     *
+     * @return The number of the current playday
+     */
+    public static int getCurrentPlaydayNumber() {
+        final Integer number = (Integer) Cache.get(CURRENT_PLAYDAY);
+        if (number == null) {
+            return refreshCurrentPlayday();
+        }
+
+        return number;
+    }
+
+    /**
+     * Loads the number of the current playday from the database and stores it in the application cache
+     *
+     * @return The number of the current playday
+     */
+    public static int refreshCurrentPlayday() {
         Playday playday = Playday.find("byCurrent", true).first();
         if (playday == null) {
             playday = Playday.find("byNumber", 1).first();
         }
 
-        return playday;
+        final int number = (playday == null) ? 1 : playday.getNumber();
+        Cache.set(CURRENT_PLAYDAY, number, CACHE_DURATION);
+
+        return number;
     }
 
     /**
@@ -730,6 +866,18 @@ public class AppUtils implements AppConstants {
      * @param wsResults WSResults object containing the data from the webservice
      */
     public static void setGameScoreFromWebService(final Game game, final WSResults wsResults) {
+        applyGameScoreFromWebService(game, wsResults);
+        calculations();
+    }
+
+    /**
+     * Parses a game from OpenLigaDB and stores it in the database without running the
+     * calculations, so several games can be updated with a single recalculation
+     *
+     * @param game The game object to store
+     * @param wsResults WSResults object containing the data from the webservice
+     */
+    public static void applyGameScoreFromWebService(final Game game, final WSResults wsResults) {
         final Map<String, WSResult> wsResult = wsResults.getWsResult();
 
         String homeScore = null;
@@ -757,7 +905,6 @@ public class AppUtils implements AppConstants {
         Logger.info("Recieved from WebService - HomeScoreExtra: " + homeScoreExtratime + " AwayScoreExtra: " + awayScoreExtratime + " (" + extratime + ")");
         Logger.info("Updating results from WebService. " + game);
         setGameScore(String.valueOf(game.getId()), homeScore, awayScore, extratime, homeScoreExtratime, awayScoreExtratime);
-        calculations();
     }
 
     /**
@@ -827,6 +974,8 @@ public class AppUtils implements AppConstants {
             extraTip.setExtra(extra);
             extraTip.setAnswer(team);
             extraTip._save();
+            CacheUtils.bumpUserVersion(user);
+            CacheUtils.bumpTipsVersion();
             Logger.info("Stored extratip - " + user.getEmail() + " - " + extraTip);
         }
     }
@@ -868,24 +1017,78 @@ public class AppUtils implements AppConstants {
      * @return True if initialized, false otherwise
      */
     public static boolean appIsInizialized() {
-        return getSettings() != null ? true : false;
+        if (Cache.get(INITIALIZED) != null) {
+            return true;
+        }
+
+        final boolean initialized = getSettings() != null ? true : false;
+        if (initialized) {
+            Cache.set(INITIALIZED, Boolean.TRUE);
+        }
+
+        return initialized;
     }
 
     /**
-     * Checks if the user with a given username and userpass
-     * matches an entry in the database
-     * 
-     * @param username The username
-     * @param userpass The hashed passowrd of the user
-     * @return The User object, if found in database
+     * Removes the cached initialization flag, current playday and app salt, so they are reloaded from the database
+     */
+    public static void resetApplicationCache() {
+        Cache.delete(INITIALIZED);
+        Cache.delete(CURRENT_PLAYDAY);
+        Cache.delete(APP_SALT);
+    }
+
+    /**
+     * Calculates the point in time when a confirmation created now expires, based
+     * on app.confirmation.ttl in hours (default 48)
+     *
+     * @return The expiry date
      */
-    public static User connectUser(final String username, final String userpass) {
-        User user = User.find("byUsernameAndUserpassAndActive", username, userpass, true).first();
-        if (user == null) {
-            user = User.find("byEmailAndUserpassAndActive", username, userpass, true).first();
+    public static Date getConfirmationExpiry() {
+        final int hours = getConfiguration("app.confirmation.ttl", DEFAULT_CONFIRMATION_TTL);
+
+        return new Date(System.currentTimeMillis() + (hours * 3600000L));
+    }
+
+    /**
+     * Returns a list of lightweight user projections without password hashes and pictures
+     *
+     * @param condition JPQL condition for the users, e.g. "u.active = true", may be null
+     * @param order JPQL order clause, e.g. "u.place ASC"
+     * @param max Maximum number of results, 0 for all
+     * @return A List of UserSummary objects
+     */
+    public static List<UserSummary> getUserSummaries(final String condition, final String order, final int max) {
+        final StringBuilder query = new StringBuilder(UserSummary.SELECT);
+        if (StringUtils.isNotBlank(condition)) {
+            query.append(" WHERE ").append(condition);
+        }
+        query.append(" ORDER BY ").append(order);
+
+        final TypedQuery<UserSummary> typedQuery = JPA.em().createQuery(query.toString(), UserSummary.class);
+        if (max > 0) {
+            typedQuery.setMaxResults(max);
         }
 
-        return user;
+        return typedQuery.getResultList();
+    }
+
+    /**
+     * Returns the email addresses of all active users
+     *
+     * @return A List of email addresses
+     */
+    public static List<String> getAllActiveEmails() {
+        return JPA.em().createQuery("SELECT u.email FROM User u WHERE u.active = true", String.class).getResultList();
+    }
+
+    /**
+     * Counts all active users
+     *
+     * @return The number of active users
+     */
+    public static long countActiveUsers() {
+        return User.count("byActive", true);
     }
 
     /**
@@ -0,0 +1,399 @@
+package utils;
+
+import interfaces.AppConstants;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import models.DataVersion;
+import models.Settings;
+import models.User;
+
+import org.hibernate.Session;
+
+import play.Logger;
+import play.cache.Cache;
+import play.db.jpa.JPA;
+import play.db.jpa.JPAException;
+import play.i18n.Lang;
+import play.templates.TemplateLoader;
+
+public class CacheUtils implements AppConstants {
+    private static final String DATA_VERSION = "dataVersion";
+    private static final String TIPS_VERSION = "tipsVersion";
+    private static final String CALCULATION_VERSION = "calculationVersion";
+    private static final String SCHEDULE_VERSION = "scheduleVersion";
+    private static final String USER_VERSION = "userVersion-";
+    private static final String USER_ID = "userId-";
+    private static final String NEXT_TIP_DEADLINE = "nextTipDeadline";
+    private static final int DEFAULT_FRAGMENTS = 500;
+    private static final int DEFAULT_VERSION_TTL = 5;
+    private static final Map<String, String> fragments = new FragmentCache(AppUtils.getConfiguration("app.cache.fragments", DEFAULT_FRAGMENTS));
+    private static final ThreadLocal<Set<String>> pendingBumps = new ThreadLocal<Set<String>>();
+
+    /**
+     * Returns the current data version. The version changes whenever results are
+     * recalculated, tip data is changed by an admin or a tip deadline has passed
+     *
+     * @return The current data version (timestamp of the last change)
+     */
+    public static long getDataVersion() {
+        long version = getVersion(DATA_VERSION);
+
+        final long now = System.currentTimeMillis();
+        Long deadline = (Long) Cache.get(NEXT_TIP_DEADLINE);
+        if ((deadline != null) && (deadline <= now)) {
+            // nothing has been written, so the version can be bumped right away
+            version = storeVersion(DATA_VERSION, true);
+            deadline = null;
+        }
+
+        if (deadline == null) {
+            deadline = getNextTipDeadline(now);
+            Cache.set(NEXT_TIP_DEADLINE, deadline);
+        }
+
+        return version;
+    }
+
+    /**
+     * Sets a new data version once the current transaction has been committed,
+     * which invalidates all cached fragments
+     */
+    public static void bumpDataVersion() {
+        bumpVersion(DATA_VERSION);
+    }
+
+    /**
+     * Returns the version of the last calculation of user points and places
+     *
+     * @return The current calculation version
+     */
+    public static long getCalculationVersion() {
+        return getVersion(CALCULATION_VERSION);
+    }
+
+    /**
+     * Sets a new calculation version, called whenever the places of the users may have changed
+     */
+    public static void bumpCalculationVersion() {
+        bumpVersion(CALCULATION_VERSION);
+    }
+
+    /**
+     * Returns the version of all placed game and extra tips
+     *
+     * @return The current tips version (timestamp of the last placed tip)
+     */
+    public static long getTipsVersion() {
+        return getVersion(TIPS_VERSION);
+    }
+
+    /**
+     * Sets a new tips version, called whenever a user places a tip
+     */
+    public static void bumpTipsVersion() {
+        bumpVersion(TIPS_VERSION);
+    }
+
+    /**
+     * Returns the version of the kickoffs, results and informed states the
+     * job schedule is based on
+     *
+     * @return The current schedule version
+     */
+    public static long getScheduleVersion() {
+        return getVersion(SCHEDULE_VERSION);
+    }
+
+    /**
+     * Sets a new schedule version, which makes the leader reload its kickoff index
+     */
+    public static void bumpScheduleVersion() {
+        bumpVersion(SCHEDULE_VERSION);
+    }
+
+    /**
+     * Returns the version of the data of a connected user, e.g. his own tips. The
+     * version is stored with the user and read again after app.cache.versions seconds
+     *
+     * @param connected The username or email the user is connected with
+     * @return The current version of the user, 0 if there is no such user
+     */
+    public static long getUserVersion(final String connected) {
+        final Long version = (Long) Cache.get(USER_VERSION + connected);
+        if (version != null) {
+            return version;
+        }
+
+        final List<Long> versions = JPA.em()
+                .createQuery("SELECT u.dataVersion FROM User u WHERE u.username = :connected OR u.email = :connected", Long.class)
+                .setParameter("connected", connected)
+                .getResultList();
+        final long userVersion = versions.isEmpty() ? 0 : versions.get(0);
+        Cache.set(USER_VERSION + connected, userVersion, getVersionTtl());
+
+        return userVersion;
+    }
+
+    /**
+     * Sets a new version for a user once the current transaction has been committed
+     *
+     * @param user The user
+     */
+    public static void bumpUserVersion(final User user) {
+        if ((user != null) && (user.getId() != null)) {
+            bumpVersion(USER_ID + user.getId());
+        }
+    }
+
+    /**
+     * Returns the cache key for a fragment with the given name, based on
+     * the current data version and the current language
+     *
+     * @param name The name of the fragment
+     * @return The cache key
+     */
+    public static String getFragmentKey(final String name) {
+        return name + "-" + getDataVersion() + "-" + Lang.get();
+    }
+
+    /**
+     * Returns a rendered fragment from the cache
+     *
+     * @param key The key of the fragment
+     * @return The rendered HTML, null if not cached
+     */
+    public static String getFragment(final String key) {
+        synchronized (fragments) {
+            return fragments.get(key);
+        }
+    }
+
+    /**
+     * Renders a template to a string and stores the result in the cache
+     *
+     * @param key The key of the fragment
+     * @param template The template to render, e.g. Tips/standingsTable.html
+     * @param args The arguments for the template
+     * @return The rendered HTML
+     */
+    public static String renderFragment(final String key, final String template, final Map<String, Object> args) {
+        final String html = TemplateLoader.load(template).render(args);
+        synchronized (fragments) {
+            fragments.put(key, html);
+        }
+
+        return html;
+    }
+
+    /**
+     * Calculates the next point in time when the tips of a game are closed
+     *
+     * @param now The current time
+     * @return The next tip deadline in milliseconds, Long.MAX_VALUE if none
+     */
+    private static long getNextTipDeadline(final long now) {
+        final Settings settings = AppUtils.getSettings();
+        final long offset = (settings == null) ? 0 : settings.getMinutesBeforeTip() * 60000L;
+
+        final Date kickoff = (Date) JPA.em()
+                .createQuery("SELECT MIN(g.kickoff) FROM Game g WHERE g.kickoff > :kickoff")
+                .setParameter("kickoff", new Date(now + offset))
+                .getSingleResult();
+
+        return (kickoff == null) ? Long.MAX_VALUE : kickoff.getTime() - offset;
+    }
+
+    /**
+     * Returns a version, which is kept in the database so all nodes see the same
+     * version. Each node reads it again after app.cache.versions seconds (default 5)
+     *
+     * @param key The name of the version
+     * @return The current version, 0 if it has never been bumped
+     */
+    private static long getVersion(final String key) {
+        final Long version = (Long) Cache.get(key);
+        if (version != null) {
+            return version;
+        }
+
+        return storeVersion(key, false);
+    }
+
+    /**
+     * Bumps a version after the current transaction has been committed, so no node
+     * can see the new version together with the old data. Without a transaction the
+     * version is bumped right away
+     */
+    private static void bumpVersion(final String key) {
+        Set<String> keys = pendingBumps.get();
+        if (keys == null) {
+            keys = new LinkedHashSet<String>();
+            if (!registerAfterCommit(keys)) {
+                applyBump(key);
+                return;
+            }
+            pendingBumps.set(keys);
+        }
+        keys.add(key);
+    }
+
+    private static boolean registerAfterCommit(final Set<String> keys) {
+        try {
+            final EntityManager entityManager = JPA.em();
+            if (!entityManager.getTransaction().isActive()) {
+                return false;
+            }
+
+            ((Session) entityManager.getDelegate()).getTransaction().registerSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                    // versions are only bumped after the data has been written
+                }
+
+                @Override
+                public void afterCompletion(final int status) {
+                    pendingBumps.remove();
+                    if (status == Status.STATUS_COMMITTED) {
+                        for (final String key : keys) {
+                            applyBump(key);
+                        }
+                    }
+                }
+            });
+        } catch (final JPAException e) {
+            return false;
+        }
+
+        return true;
+    }
+
+    private static void applyBump(final String key) {
+        if (key.startsWith(USER_ID)) {
+            storeUserVersion(Long.valueOf(key.substring(USER_ID.length())));
+        } else {
+            storeVersion(key, true);
+            if (DATA_VERSION.equals(key)) {
+                Cache.delete(NEXT_TIP_DEADLINE);
+            }
+        }
+    }
+
+    /**
+     * Reads or bumps a version in its own transaction. A bumped version is the
+     * current time, or the previous version plus one if that is not newer. Reading
+     * a version which does not exist yet returns 0 without creating it
+     */
+    private static long storeVersion(final String key, final boolean bump) {
+        final long now = System.currentTimeMillis();
+        long version = 0;
+        final EntityManager entityManager = JPA.entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            if (bump) {
+                final int updated = entityManager.createQuery("UPDATE DataVersion v SET v.version = :now WHERE v.name = :name AND v.version < :now")
+                        .setParameter("now", now)
+                        .setParameter("name", key)
+                        .executeUpdate();
+                if (updated == 0) {
+                    entityManager.createQuery("UPDATE DataVersion v SET v.version = v.version + 1 WHERE v.name = :name")
+                            .setParameter("name", key)
+                            .executeUpdate();
+                }
+            }
+
+            final List<Long> versions = entityManager.createQuery("SELECT v.version FROM DataVersion v WHERE v.name = :name", Long.class)
+                    .setParameter("name", key)
+                    .getResultList();
+            if (!versions.isEmpty()) {
+                version = versions.get(0);
+            } else if (bump) {
+                final DataVersion dataVersion = new DataVersion();
+                dataVersion.setName(key);
+                dataVersion.setVersion(now);
+                entityManager.persist(dataVersion);
+                version = now;
+            }
+            entityManager.getTransaction().commit();
+        } catch (final Exception e) {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            Logger.warn("Failed to " + (bump ? "bump" : "read") + " version " + key + ": " + e);
+            Cache.delete(key);
+
+            return version;
+        } finally {
+            entityManager.close();
+        }
+        Cache.set(key, version, getVersionTtl());
+
+        return version;
+    }
+
+    /**
+     * Bumps the version of a user in its own transaction and updates the cached
+     * version for both username and email, as a user can be connected with either
+     */
+    private static void storeUserVersion(final Long userId) {
+        final long now = System.currentTimeMillis();
+        final EntityManager entityManager = JPA.entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            final int updated = entityManager.createQuery("UPDATE User u SET u.dataVersion = :now WHERE u.id = :id AND u.dataVersion < :now")
+                    .setParameter("now", now)
+                    .setParameter("id", userId)
+                    .executeUpdate();
+            if (updated == 0) {
+                entityManager.createQuery("UPDATE User u SET u.dataVersion = u.dataVersion + 1 WHERE u.id = :id")
+                        .setParameter("id", userId)
+                        .executeUpdate();
+            }
+
+            final List<Object[]> users = entityManager.createQuery("SELECT u.username, u.email, u.dataVersion FROM User u WHERE u.id = :id", Object[].class)
+                    .setParameter("id", userId)
+                    .getResultList();
+            entityManager.getTransaction().commit();
+
+            for (final Object[] user : users) {
+                Cache.set(USER_VERSION + user[0], user[2], getVersionTtl());
+                Cache.set(USER_VERSION + user[1], user[2], getVersionTtl());
+            }
+        } catch (final Exception e) {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            Logger.warn("Failed to bump version of user " + userId + ": " + e);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static String getVersionTtl() {
+        return AppUtils.getConfiguration("app.cache.versions", DEFAULT_VERSION_TTL) + "s";
+    }
+
+    private static class FragmentCache extends LinkedHashMap<String, String> {
+        private static final long serialVersionUID = 4402918466379157315L;
+        private final int maxSize;
+
+        public FragmentCache(final int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+            return size() > this.maxSize;
+        }
+    }
+}
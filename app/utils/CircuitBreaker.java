@@ -0,0 +1,108 @@
+package utils;
+
+/**
+ * Circuit breaker for an unreliable upstream. After a number of consecutive failed
+ * requests the breaker opens and rejects all requests for the configured time.
+ * Afterwards a single probe request is let through, which closes the breaker on
+ * success and opens it again on failure
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int threshold;
+    private final long openTime;
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean probing;
+
+    /**
+     * @param threshold The number of consecutive failures after which the breaker opens
+     * @param openTime The time in milliseconds the breaker stays open
+     */
+    public CircuitBreaker(final int threshold, final long openTime) {
+        this.threshold = threshold;
+        this.openTime = openTime;
+    }
+
+    /**
+     * Checks if a request may be sent to the upstream. In half-open state only one
+     * probe request is allowed until its outcome has been recorded
+     *
+     * @param now The current time
+     * @return True if the request may be sent, false if it should be skipped
+     */
+    public synchronized boolean allowRequest(final long now) {
+        if ((this.state == State.OPEN) && (now >= (this.openedAt + this.openTime))) {
+            this.state = State.HALF_OPEN;
+            this.probing = false;
+        }
+
+        if (this.state == State.HALF_OPEN) {
+            if (this.probing) {
+                return false;
+            }
+            this.probing = true;
+            return true;
+        }
+
+        return this.state == State.CLOSED;
+    }
+
+    /**
+     * Checks if the breaker rejects all requests at the given time
+     *
+     * @param now The current time
+     * @return True if the breaker is open and the open time has not yet passed
+     */
+    public synchronized boolean isOpen(final long now) {
+        return (this.state == State.OPEN) && (now < (this.openedAt + this.openTime));
+    }
+
+    /**
+     * Records a successful request and closes the breaker
+     *
+     * @return True if the breaker has been closed by this request
+     */
+    public synchronized boolean success() {
+        final boolean closed = this.state != State.CLOSED;
+        this.state = State.CLOSED;
+        this.failures = 0;
+        this.probing = false;
+
+        return closed;
+    }
+
+    /**
+     * Records a failed request and opens the breaker if the threshold has been
+     * reached or the probe request failed
+     *
+     * @param now The current time
+     * @return True if the breaker has been opened by this request
+     */
+    public synchronized boolean failure(final long now) {
+        this.failures++;
+        if ((this.state == State.HALF_OPEN) || ((this.state == State.CLOSED) && (this.failures >= this.threshold))) {
+            this.state = State.OPEN;
+            this.openedAt = now;
+            this.probing = false;
+            return true;
+        }
+
+        return false;
+    }
+
+    public synchronized State getState() {
+        return this.state;
+    }
+
+    public synchronized long getOpenedAt() {
+        return this.openedAt;
+    }
+
+    public long getOpenTime() {
+        return this.openTime;
+    }
+}
@@ -0,0 +1,156 @@
+package utils;
+
+import interfaces.AppConstants;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import models.JobRun;
+import models.JobStatistic;
+
+import org.apache.commons.lang.StringUtils;
+
+import play.Logger;
+import play.Play;
+import play.db.jpa.JPA;
+
+public class JobUtils implements AppConstants {
+    private static final int DEFAULT_RETENTION = 30;
+    private static final int DEFAULT_SAMPLE = 1000;
+    private static final int MAX_ERROR_LENGTH = 255;
+    private static final String NODE_ID = createNodeId();
+
+    /**
+     * Returns the id of this application node, consisting of the application name,
+     * the process id and the host name, e.g. rudeltippen/1234@host
+     *
+     * @return The node id
+     */
+    public static String getNodeId() {
+        return NODE_ID;
+    }
+
+    /**
+     * Stores a job run in its own transaction, so runs of failed jobs whose
+     * transaction is rolled back are recorded as well
+     *
+     * @param name The name of the job
+     * @param started The start of the run in milliseconds
+     * @param finished The end of the run in milliseconds
+     * @param items The number of processed items
+     * @param error The error of the run, null if the run was successful
+     */
+    public static void record(final String name, final long started, final long finished, final int items, final String error) {
+        final JobRun jobRun = new JobRun();
+        jobRun.setName(name);
+        jobRun.setNode(NODE_ID);
+        jobRun.setStarted(new Date(started));
+        jobRun.setFinished(new Date(finished));
+        jobRun.setDuration(finished - started);
+        jobRun.setItems(items);
+        jobRun.setError(StringUtils.abbreviate(error, MAX_ERROR_LENGTH));
+
+        final EntityManager entityManager = JPA.entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            entityManager.persist(jobRun);
+            entityManager.getTransaction().commit();
+        } catch (final Exception e) {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            Logger.error("Failed to record run of " + name, e);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Calculates the number of runs, errors and processed items and the maximum duration
+     * per job from the runs within the retention period. Duration percentiles and
+     * overlapping runs are calculated from the last runs of each job, at most
+     * app.jobs.sample (default 1000)
+     *
+     * @return A list of statistics, ordered by job name
+     */
+    public static List<JobStatistic> getStatistics() {
+        final Date since = new Date(System.currentTimeMillis() - (AppUtils.getConfiguration("app.jobs.retention", DEFAULT_RETENTION) * 86400000L));
+        final int sample = AppUtils.getConfiguration("app.jobs.sample", DEFAULT_SAMPLE);
+        final List<Object[]> jobs = JPA.em()
+                .createQuery("SELECT j.name, COUNT(j), COUNT(j.error), SUM(j.items), MAX(j.duration) FROM JobRun j WHERE j.started >= :since GROUP BY j.name ORDER BY j.name", Object[].class)
+                .setParameter("since", since)
+                .getResultList();
+
+        final List<JobStatistic> statistics = new ArrayList<JobStatistic>();
+        for (final Object[] job : jobs) {
+            final List<Object[]> runs = JPA.em()
+                    .createQuery("SELECT j.started, j.finished, j.duration, j.node FROM JobRun j WHERE j.name = :name AND j.started >= :since ORDER BY j.started DESC", Object[].class)
+                    .setParameter("name", job[0])
+                    .setParameter("since", since)
+                    .setMaxResults(sample)
+                    .getResultList();
+            statistics.add(getStatistic(job, runs));
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Returns a percentile of sorted values using the nearest-rank method
+     *
+     * @param sorted The values in ascending order
+     * @param percentile The percentile between 1 and 100
+     * @return The value at the percentile, 0 if there are no values
+     */
+    public static long getPercentile(final long[] sorted, final int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+
+        final int rank = (int) Math.ceil((percentile / 100.0) * sorted.length);
+        return sorted[Math.min(sorted.length, Math.max(1, rank)) - 1];
+    }
+
+    /**
+     * Deletes all job runs older than the retention period (app.jobs.retention in days)
+     *
+     * @return The number of deleted runs
+     */
+    public static int deleteExpiredRuns() {
+        final Date before = new Date(System.currentTimeMillis() - (AppUtils.getConfiguration("app.jobs.retention", DEFAULT_RETENTION) * 86400000L));
+        return JPA.em().createQuery("DELETE FROM JobRun j WHERE j.started < :before").setParameter("before", before).executeUpdate();
+    }
+
+    private static JobStatistic getStatistic(final Object[] job, final List<Object[]> runs) {
+        final long[] durations = new long[runs.size()];
+        int overlaps = 0;
+        long previousFinished = 0;
+        for (int i = runs.size() - 1; i >= 0; i--) {
+            final Object[] run = runs.get(i);
+            final long started = ((Date) run[0]).getTime();
+            durations[i] = (Long) run[2];
+            if (started < previousFinished) {
+                overlaps++;
+            }
+            previousFinished = Math.max(previousFinished, ((Date) run[1]).getTime());
+        }
+        Arrays.sort(durations);
+
+        final Object[] last = runs.get(0);
+        return new JobStatistic((String) job[0], ((Number) job[1]).intValue(), ((Number) job[2]).intValue(), overlaps, ((Number) job[3]).longValue(),
+                getPercentile(durations, 50), getPercentile(durations, 90), getPercentile(durations, 99),
+                ((Number) job[4]).longValue(), (Date) last[0], (String) last[3]);
+    }
+
+    private static String createNodeId() {
+        final String appName = Play.configuration.getProperty("application.name");
+        final String runtime = ManagementFactory.getRuntimeMXBean().getName();
+
+        return StringUtils.isNotBlank(appName) ? appName + "/" + runtime : runtime;
+    }
+}
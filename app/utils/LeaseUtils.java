@@ -0,0 +1,150 @@
+package utils;
+
+import interfaces.AppConstants;
+
+import java.util.Date;
+
+import javax.persistence.EntityManager;
+
+import models.JobLease;
+
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.SessionFactoryImplementor;
+
+import play.Logger;
+import play.db.jpa.JPA;
+
+public class LeaseUtils implements AppConstants {
+    private static final String LEADER = "leader";
+    private static final int DEFAULT_TTL = 15;
+    private static volatile long validUntil;
+    private static volatile long nextAttempt;
+
+    /**
+     * Checks if this node holds the leader lease. If the lease is not held and the
+     * last attempt is older than a second, the node tries to acquire it
+     *
+     * @return True if this node is the leader and should run the jobs, false otherwise
+     */
+    public static boolean isLeader() {
+        final long now = System.currentTimeMillis();
+        if (now < validUntil) {
+            return true;
+        } else if (now < nextAttempt) {
+            return false;
+        }
+
+        return renew();
+    }
+
+    /**
+     * Acquires or renews the leader lease (app.lease.ttl in seconds, default 15). The
+     * lease is taken if this node already owns it or if it has expired. Expiry is based
+     * on the clock of the database, so clock skew between nodes does not matter. Runs in
+     * its own transaction, so the lease is visible to all nodes right away
+     *
+     * @return True if this node holds the lease, false otherwise
+     */
+    public static synchronized boolean renew() {
+        final long now = System.currentTimeMillis();
+        final long ttl = AppUtils.getConfiguration("app.lease.ttl", DEFAULT_TTL) * 1000L;
+        final boolean wasLeader = now < validUntil;
+
+        boolean leader = false;
+        final EntityManager entityManager = JPA.entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            final Date databaseTime = getDatabaseTime(entityManager);
+            leader = entityManager
+                    .createQuery("UPDATE JobLease l SET l.owner = :owner, l.expires = :expires WHERE l.name = :name AND (l.owner = :owner OR l.expires < :now)")
+                    .setParameter("owner", JobUtils.getNodeId())
+                    .setParameter("expires", new Date(databaseTime.getTime() + ttl))
+                    .setParameter("name", LEADER)
+                    .setParameter("now", databaseTime)
+                    .executeUpdate() > 0;
+
+            if (!leader && (entityManager.createQuery("SELECT COUNT(l) FROM JobLease l WHERE l.name = :name", Long.class).setParameter("name", LEADER).getSingleResult() == 0)) {
+                final JobLease jobLease = new JobLease();
+                jobLease.setName(LEADER);
+                jobLease.setOwner(JobUtils.getNodeId());
+                jobLease.setExpires(new Date(databaseTime.getTime() + ttl));
+                entityManager.persist(jobLease);
+                leader = true;
+            }
+            entityManager.getTransaction().commit();
+        } catch (final Exception e) {
+            leader = false;
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            Logger.warn("Failed to renew leader lease: " + e);
+        } finally {
+            entityManager.close();
+        }
+
+        // Only rely on half of the lease locally, so a delayed heartbeat does
+        // not let two nodes run jobs at the same time
+        validUntil = leader ? now + (ttl / 2) : 0;
+        nextAttempt = now + 1000;
+
+        if (leader != wasLeader) {
+            Logger.info(JobUtils.getNodeId() + (leader ? " acquired" : " lost") + " the leader lease");
+        }
+
+        return leader;
+    }
+
+    /**
+     * Gives up the leader lease, so another node can take over right away
+     */
+    public static synchronized void release() {
+        if (validUntil == 0) {
+            return;
+        }
+
+        validUntil = 0;
+        final EntityManager entityManager = JPA.entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            entityManager.createQuery("UPDATE JobLease l SET l.expires = :now WHERE l.name = :name AND l.owner = :owner")
+                    .setParameter("now", getDatabaseTime(entityManager))
+                    .setParameter("name", LEADER)
+                    .setParameter("owner", JobUtils.getNodeId())
+                    .executeUpdate();
+            entityManager.getTransaction().commit();
+            Logger.info(JobUtils.getNodeId() + " released the leader lease");
+        } catch (final Exception e) {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            Logger.warn("Failed to release leader lease: " + e);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Returns the current leader lease
+     *
+     * @return The lease, null if no node has acquired it yet
+     */
+    public static JobLease getLeader() {
+        return JobLease.find("byName", LEADER).first();
+    }
+
+    /**
+     * Returns the current time of the database, or of this node if the
+     * dialect can not select the current timestamp
+     */
+    private static Date getDatabaseTime(final EntityManager entityManager) {
+        final Session session = (Session) entityManager.getDelegate();
+        final Dialect dialect = ((SessionFactoryImplementor) session.getSessionFactory()).getDialect();
+        if (!dialect.supportsCurrentTimestampSelection()) {
+            return new Date();
+        }
+
+        final Date databaseTime = (Date) entityManager.createNativeQuery(dialect.getCurrentTimestampSelectString()).getSingleResult();
+        return new Date(databaseTime.getTime());
+    }
+}
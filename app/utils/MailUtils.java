@@ -0,0 +1,180 @@
+package utils;
+
+import interfaces.AppConstants;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+
+import models.User;
+
+import org.apache.commons.lang.StringEscapeUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.mail.HtmlEmail;
+
+import play.Logger;
+import play.Play;
+import play.libs.Codec;
+import play.libs.Mail;
+import play.templates.TemplateLoader;
+
+public class MailUtils implements AppConstants {
+    private static final String CHARSET = "UTF-8";
+    private static final int DEFAULT_BATCH = 100;
+
+    /**
+     * Renders the part of a mail which is the same for all recipients
+     *
+     * @param template The template of the shared part, e.g. Mails/_gametips.html
+     * @param args The arguments for the template
+     * @return The rendered HTML
+     */
+    public static String render(final String template, final Map<String, Object> args) {
+        return TemplateLoader.load(template).render(args);
+    }
+
+    /**
+     * Renders a personal mail template once for several recipients. The template is
+     * rendered with a placeholder user, whose username is cut out, so only the
+     * username has to be inserted for each recipient
+     *
+     * @param template The template of the mail, e.g. Mails/gametips.html
+     * @param args The arguments for the template, without the user
+     * @return The HTML before [0] and after [1] the username of the recipient
+     */
+    public static String[] renderEnvelope(final String template, final Map<String, Object> args) {
+        final String marker = Codec.UUID();
+        final User user = new User();
+        user.setUsername(marker);
+
+        final Map<String, Object> envelopeArgs = new HashMap<String, Object>(args);
+        envelopeArgs.put("user", user);
+        final String html = render(template, envelopeArgs);
+
+        final int index = html.indexOf(marker);
+        if (index < 0) {
+            Logger.warn("Template " + template + " does not contain the username of the recipient");
+            return new String[] {html, ""};
+        }
+
+        return new String[] {html.substring(0, index), html.substring(index + marker.length())};
+    }
+
+    /**
+     * Inserts the username of a recipient into a rendered envelope
+     *
+     * @param username The username of the recipient
+     * @param envelope The envelope rendered by renderEnvelope
+     * @return The complete HTML of the mail
+     */
+    public static String getEnvelope(final String username, final String[] envelope) {
+        final String name = StringEscapeUtils.escapeHtml(username);
+        final StringBuilder buffer = new StringBuilder(envelope[0].length() + name.length() + envelope[1].length());
+        buffer.append(envelope[0]).append(name).append(envelope[1]);
+
+        return buffer.toString();
+    }
+
+    /**
+     * Sends a rendered envelope with the username of each recipient to several recipients. The
+     * mails are sent over one SMTP connection per batch (app.mail.batch, default 100)
+     * instead of one connection per mail. A failing mail is logged and does not stop
+     * the batch
+     *
+     * @param subject The subject of all mails
+     * @param envelope The envelope rendered by renderEnvelope
+     * @param recipients The usernames of the recipients by email address
+     * @return The number of sent mails
+     */
+    public static int sendHtml(final String subject, final String[] envelope, final Map<String, String> recipients) {
+        if (recipients.isEmpty()) {
+            return 0;
+        }
+
+        if ("mock".equals(Play.configuration.getProperty("mail.smtp", ""))) {
+            return sendMock(subject, envelope, recipients);
+        }
+
+        final int batch = AppUtils.getConfiguration("app.mail.batch", DEFAULT_BATCH);
+        final Session session = Mail.getSession();
+        int sent = 0;
+        Transport transport = null;
+        int count = 0;
+        try {
+            for (final Map.Entry<String, String> recipient : recipients.entrySet()) {
+                if ((transport == null) || (count >= batch) || !transport.isConnected()) {
+                    close(transport);
+                    transport = session.getTransport();
+                    transport.connect();
+                    count = 0;
+                }
+
+                count++;
+                try {
+                    final MimeMessage message = createMessage(session, subject, recipient.getKey(), getEnvelope(recipient.getValue(), envelope));
+                    transport.sendMessage(message, message.getAllRecipients());
+                    sent++;
+                } catch (final MessagingException e) {
+                    Logger.error("Failed to send mail to " + recipient.getKey() + ": " + e.getMessage());
+                }
+            }
+        } catch (final MessagingException e) {
+            Logger.error("Failed to connect to the mail server, sent " + sent + " of " + recipients.size() + " mails", e);
+        } finally {
+            close(transport);
+        }
+
+        return sent;
+    }
+
+    private static MimeMessage createMessage(final Session session, final String subject, final String recipient, final String html) throws MessagingException {
+        final MimeMessage message = new MimeMessage(session);
+        message.setFrom(InternetAddress.parse(Play.configuration.getProperty("mailservice.from"))[0]);
+        final String replyto = Play.configuration.getProperty("mailservice.replyto");
+        if (StringUtils.isNotBlank(replyto)) {
+            message.setReplyTo(InternetAddress.parse(replyto));
+        }
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(recipient));
+        message.setSubject(subject, CHARSET);
+        message.setContent(html, "text/html; charset=" + CHARSET);
+        message.saveChanges();
+
+        return message;
+    }
+
+    private static int sendMock(final String subject, final String[] envelope, final Map<String, String> recipients) {
+        int sent = 0;
+        for (final Map.Entry<String, String> recipient : recipients.entrySet()) {
+            try {
+                final HtmlEmail email = new HtmlEmail();
+                email.setCharset(CHARSET);
+                email.setFrom(Play.configuration.getProperty("mailservice.from"));
+                email.addTo(recipient.getKey());
+                email.setSubject(subject);
+                email.setHtmlMsg(getEnvelope(recipient.getValue(), envelope));
+                Mail.send(email);
+                sent++;
+            } catch (final Exception e) {
+                Logger.error("Failed to send mail to " + recipient.getKey() + ": " + e.getMessage());
+            }
+        }
+
+        return sent;
+    }
+
+    private static void close(final Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (final MessagingException e) {
+                Logger.warn("Failed to close connection to the mail server: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package utils;
+
+import interfaces.AppConstants;
+
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import models.User;
+
+import org.apache.commons.lang.StringUtils;
+
+import play.Logger;
+import play.libs.Codec;
+import play.libs.F.Promise;
+
+public class PasswordUtils implements AppConstants {
+    private static final String PBKDF2_PREFIX = "pbkdf2-sha1";
+    private static final String PBKDF2_ALGORITHM = "PBKDF2WithHmacSHA1";
+    private static final String SEPARATOR = "$";
+    private static final int DEFAULT_ITERATIONS = 100000;
+    private static final int KEY_LENGTH = 160;
+    private static final int DEFAULT_QUEUE = 50;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final AtomicLong rejected = new AtomicLong();
+    private static final ThreadPoolExecutor executor = createExecutor();
+
+    /**
+     * Hashes a given clear-text password with PBKDF2 using the configured number of
+     * iterations (app.password.iterations, default 100000). The result contains the
+     * format and the iterations, e.g. $pbkdf2-sha1$100000$<hash>
+     *
+     * @param userpass The password
+     * @param usersalt The salt of the user
+     * @return The hashed password including format and parameters
+     */
+    public static String hash(final String userpass, final String usersalt) {
+        final int iterations = getIterations();
+        return SEPARATOR + PBKDF2_PREFIX + SEPARATOR + iterations + SEPARATOR + pbkdf2(userpass, usersalt, iterations);
+    }
+
+    /**
+     * Checks a clear-text password against the stored password of a user. Stored
+     * passwords without a format prefix are verified with the legacy SHA-512 scheme
+     *
+     * @param userpass The clear-text password
+     * @param user The user
+     * @return True if the password matches, false otherwise
+     */
+    public static boolean verify(final String userpass, final User user) {
+        final String stored = user.getUserpass();
+        final String appsalt = isLegacy(stored) ? AppUtils.getAppSalt() : null;
+
+        return verify(userpass, stored, user.getSalt(), appsalt);
+    }
+
+    /**
+     * Hashes a password on the bounded hashing executor
+     *
+     * @param userpass The password
+     * @param usersalt The salt of the user
+     * @return A promise for the hashed password
+     * @throws RejectedExecutionException if the queue of the executor is full
+     */
+    public static Promise<String> hashAsync(final String userpass, final String usersalt) {
+        return submit(new Callable<String>() {
+            @Override
+            public String call() {
+                return hash(userpass, usersalt);
+            }
+        });
+    }
+
+    /**
+     * Checks a password against the stored password of a user on the bounded hashing executor.
+     * All values are read on the calling thread, as the executor has no database access
+     *
+     * @param userpass The clear-text password
+     * @param user The user
+     * @return A promise for the result of the check
+     * @throws RejectedExecutionException if the queue of the executor is full
+     */
+    public static Promise<Boolean> verifyAsync(final String userpass, final User user) {
+        final String stored = user.getUserpass();
+        final String usersalt = user.getSalt();
+        final String appsalt = isLegacy(stored) ? AppUtils.getAppSalt() : null;
+
+        return submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return verify(userpass, stored, usersalt, appsalt);
+            }
+        });
+    }
+
+    /**
+     * Returns the number of hashing tasks waiting for a free thread
+     *
+     * @return The queue depth of the hashing executor
+     */
+    public static int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Returns the number of hashing tasks currently running
+     *
+     * @return The number of busy hashing threads
+     */
+    public static int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Returns the number of hashing tasks rejected because the queue was full
+     *
+     * @return The number of rejected tasks since startup
+     */
+    public static long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Checks if a stored password should be hashed again, either because it uses
+     * the legacy scheme or because the configured iterations have changed
+     *
+     * @param stored The stored password
+     * @return True if the password should be rehashed, false otherwise
+     */
+    public static boolean needsRehash(final String stored) {
+        return (stored == null) || !stored.startsWith(SEPARATOR + PBKDF2_PREFIX + SEPARATOR + getIterations() + SEPARATOR);
+    }
+
+    /**
+     * Returns the number of PBKDF2 iterations from application.conf
+     *
+     * @return The number of iterations, 100000 if not configured
+     */
+    public static int getIterations() {
+        return AppUtils.getConfiguration("app.password.iterations", DEFAULT_ITERATIONS);
+    }
+
+    private static boolean verify(final String userpass, final String stored, final String usersalt, final String appsalt) {
+        if (StringUtils.isBlank(stored) || (userpass == null)) {
+            return false;
+        }
+
+        String hash = null;
+        if (stored.startsWith(SEPARATOR)) {
+            final String [] parts = StringUtils.split(stored, SEPARATOR);
+            if ((parts.length != 3) || !PBKDF2_PREFIX.equals(parts[0]) || !StringUtils.isNumeric(parts[1])) {
+                return false;
+            }
+            hash = SEPARATOR + PBKDF2_PREFIX + SEPARATOR + parts[1] + SEPARATOR + pbkdf2(userpass, usersalt, Integer.parseInt(parts[1]));
+        } else {
+            hash = AppUtils.hashPassword(userpass, usersalt, appsalt);
+        }
+
+        return MessageDigest.isEqual(hash.getBytes(UTF_8), stored.getBytes(UTF_8));
+    }
+
+    private static boolean isLegacy(final String stored) {
+        return (stored != null) && !stored.startsWith(SEPARATOR);
+    }
+
+    private static <T> Promise<T> submit(final Callable<T> task) {
+        final Promise<T> promise = new Promise<T>();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        promise.invoke(task.call());
+                    } catch (final Exception e) {
+                        promise.invokeWithException(e);
+                    }
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            Logger.warn("Password hashing queue is full, rejecting request");
+            throw e;
+        }
+
+        return promise;
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        final int threads = AppUtils.getConfiguration("app.password.threads", Runtime.getRuntime().availableProcessors());
+        final int queue = AppUtils.getConfiguration("app.password.queue", DEFAULT_QUEUE);
+
+        final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queue), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+
+        return threadPoolExecutor;
+    }
+
+    private static String pbkdf2(final String userpass, final String usersalt, final int iterations) {
+        final PBEKeySpec spec = new PBEKeySpec(userpass.toCharArray(), usersalt.getBytes(UTF_8), iterations, KEY_LENGTH);
+        try {
+            final SecretKeyFactory factory = SecretKeyFactory.getInstance(PBKDF2_ALGORITHM);
+            return Codec.byteToHexString(factory.generateSecret(spec).getEncoded());
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to calculate password hash", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package utils;
+
+import interfaces.AppConstants;
+
+import java.util.Date;
+import java.util.List;
+
+import play.Logger;
+import play.db.jpa.JPA;
+
+public class ScheduleUtils implements AppConstants {
+    private static final long MINUTE = 60000L;
+    private static final long RESULT_OFFSET = 90 * MINUTE;
+    private static final long TIP_OFFSET = MINUTE;
+    private static final long INDEX_TTL = 60 * MINUTE;
+    private static final int DEFAULT_BACKOFF = 16;
+    private static KickoffIndex index;
+    private static long resultsDelay = MINUTE;
+    private static long nextResultsPoll;
+    private static long lastResultsPoll;
+
+    /**
+     * Checks if the ResultsJob should query the WebService. This is the case once a
+     * game without result is in its result window (90 minutes after kickoff) and the
+     * current backoff delay has passed. A game entering its result window is polled
+     * immediately
+     *
+     * @param now The current time in milliseconds
+     * @return True if the results should be fetched, false otherwise
+     */
+    public static synchronized boolean isResultsDue(final long now) {
+        final long[] windows = getIndex(now).results;
+        if ((windows.length == 0) || (windows[0] > now)) {
+            return false;
+        }
+
+        final int entered = upperBound(windows, now) - upperBound(windows, lastResultsPoll);
+        if (entered > 0) {
+            resultsDelay = MINUTE;
+            return true;
+        }
+
+        return now >= nextResultsPoll;
+    }
+
+    /**
+     * Records a run of the ResultsJob. If the WebService returned no new results, the
+     * delay until the next poll is doubled up to the configured maximum
+     * (app.results.backoff in minutes), otherwise it is reset to one minute
+     *
+     * @param now The time of the run in milliseconds
+     * @param updated True if at least one game has been updated
+     */
+    public static synchronized void resultsPolled(final long now, final boolean updated) {
+        if (updated) {
+            index = null;
+            resultsDelay = MINUTE;
+        } else {
+            resultsDelay = Math.min(resultsDelay * 2, AppUtils.getConfiguration("app.results.backoff", DEFAULT_BACKOFF) * MINUTE);
+        }
+        lastResultsPoll = now;
+        nextResultsPoll = now + resultsDelay;
+    }
+
+    /**
+     * Checks if a game has kicked off whose tips have not been sent yet
+     *
+     * @param now The current time in milliseconds
+     * @return True if the GameTipJob should run, false otherwise
+     */
+    public static synchronized boolean isGameTipsDue(final long now) {
+        final long[] kickoffs = getIndex(now).tips;
+        return (kickoffs.length > 0) && (kickoffs[0] <= now);
+    }
+
+    /**
+     * Returns the next point in time when one of the jobs has work to do
+     *
+     * @param now The current time in milliseconds
+     * @return The next relevant instant in milliseconds, Long.MAX_VALUE if there are no pending games
+     */
+    public static synchronized long getNextRun(final long now) {
+        final KickoffIndex kickoffIndex = getIndex(now);
+        long next = Long.MAX_VALUE;
+        if (kickoffIndex.results.length > 0) {
+            next = (kickoffIndex.results[0] <= now) ? Math.max(now, nextResultsPoll) : kickoffIndex.results[0];
+        }
+        if (kickoffIndex.tips.length > 0) {
+            next = Math.min(next, Math.max(now, kickoffIndex.tips[0]));
+        }
+
+        return next;
+    }
+
+    /**
+     * Drops the kickoff index, which is then loaded again on the next check, and resets
+     * the backoff so changed games are polled right away. Has to be called whenever the
+     * kickoff, the result or the informed state of a game changes. The change is signalled
+     * through the schedule version, so the leader picks it up even if the change was made
+     * on another node
+     */
+    public static synchronized void invalidate() {
+        CacheUtils.bumpScheduleVersion();
+        reset();
+    }
+
+    private static void reset() {
+        index = null;
+        resultsDelay = MINUTE;
+        nextResultsPoll = 0;
+        lastResultsPoll = 0;
+    }
+
+    private static KickoffIndex getIndex(final long now) {
+        final long version = CacheUtils.getScheduleVersion();
+        if ((index != null) && (index.version != version)) {
+            reset();
+        }
+
+        KickoffIndex kickoffIndex = index;
+        if ((kickoffIndex == null) || (kickoffIndex.loaded + INDEX_TTL <= now)) {
+            kickoffIndex = new KickoffIndex(
+                    load("SELECT g.kickoff FROM Game g WHERE g.ended = false AND g.homeTeam IS NOT NULL AND g.awayTeam IS NOT NULL AND g.webserviceID <> '' ORDER BY g.kickoff", RESULT_OFFSET),
+                    load("SELECT g.kickoff FROM Game g WHERE g.informed = false ORDER BY g.kickoff", TIP_OFFSET),
+                    now, version);
+            index = kickoffIndex;
+            Logger.debug("Loaded kickoff index with " + kickoffIndex.results.length + " pending results and " + kickoffIndex.tips.length + " pending game tips");
+        }
+
+        return kickoffIndex;
+    }
+
+    private static long[] load(final String query, final long offset) {
+        final List<Date> kickoffs = JPA.em().createQuery(query, Date.class).getResultList();
+        final long[] instants = new long[kickoffs.size()];
+        for (int i = 0; i < instants.length; i++) {
+            instants[i] = kickoffs.get(i).getTime() + offset;
+        }
+
+        return instants;
+    }
+
+    private static int upperBound(final long[] instants, final long value) {
+        int low = 0;
+        int high = instants.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (instants[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Sorted instants at which pending games enter their result window
+     * and at which the tips of not yet informed games can be sent
+     */
+    private static class KickoffIndex {
+        private final long[] results;
+        private final long[] tips;
+        private final long loaded;
+        private final long version;
+
+        KickoffIndex(final long[] results, final long[] tips, final long loaded, final long version) {
+            this.results = results;
+            this.tips = tips;
+            this.loaded = loaded;
+            this.version = version;
+        }
+    }
+}
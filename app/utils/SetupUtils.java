@@ -1,76 +1,200 @@
 package utils;
 
 import interfaces.AppConstants;
+import interfaces.ResultsProvider;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import javax.persistence.EntityManager;
+
+import models.Game;
+import models.Playday;
+import models.Team;
 import models.User;
+import models.WSMatch;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import org.apache.commons.lang.StringUtils;
 
 import play.Logger;
-import play.libs.WS;
+import play.db.jpa.JPA;
 
 public class SetupUtils implements AppConstants{
-	public static List<String> getGamesFromWebService(final int playdays, final String leagueShortcut, final String leagueSaison) {
+	private static final int DEFAULT_THREADS = 4;
+	private static final int DEFAULT_BATCH = 100;
+
+	/**
+	 * Loads the matches of all playdays of a season concurrently, using at most
+	 * app.setup.threads (default 4) requests at a time
+	 *
+	 * @param provider The WebService to load the matches from
+	 * @param playdays The number of playdays
+	 * @param leagueShortcut The league, e.g. bl1
+	 * @param leagueSaison The season, e.g. 2013
+	 * @return The matches by playday number, empty for playdays which could not be loaded
+	 */
+	public static Map<Integer, List<WSMatch>> getMatchesFromWebService(final ResultsProvider provider, final int playdays, final String leagueShortcut, final String leagueSaison) {
+		final Map<Integer, List<WSMatch>> matches = new TreeMap<Integer, List<WSMatch>>();
+		final ExecutorService executor = createExecutor(playdays);
+		try {
+			final List<Future<List<WSMatch>>> futures = submit(executor, provider, playdays, leagueShortcut, leagueSaison);
+			for (int i=0; i < futures.size(); i++) {
+				matches.put(i + 1, getMatches(futures.get(i), i + 1));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return matches;
+	}
+
+	/**
+	 * Writes the playdays and games of a season as YAML fixtures. The playdays are
+	 * loaded concurrently, the games of each playday are written as soon as the playday
+	 * and all playdays before it have been loaded
+	 *
+	 * @param provider The WebService to load the matches from
+	 * @param playdays The number of playdays
+	 * @param leagueShortcut The league, e.g. bl1
+	 * @param leagueSaison The season, e.g. 2013
+	 * @param writer The writer to stream the fixtures to
+	 * @return The number of written games
+	 * @throws IOException if writing fails
+	 */
+	public static int writeFixtures(final ResultsProvider provider, final int playdays, final String leagueShortcut, final String leagueSaison, final Writer writer) throws IOException {
 		final Map<String, String> teams = getBundesligaTeams();
+		final SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+		df.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+		int game = 0;
+		final ExecutorService executor = createExecutor(playdays);
+		try {
+			final List<Future<List<WSMatch>>> futures = submit(executor, provider, playdays, leagueShortcut, leagueSaison);
+			for (int i=1; i <= playdays; i++) {
+				writer.write("models.Playday(p" + i + "):\n");
+				writer.write("    name:          " + i + "spieltag\n");
+				writer.write("    current:       false\n");
+				writer.write("    playoff:       false\n");
+				writer.write("    number:        " + i + "\n\n");
+			}
+			writer.flush();
+
+			for (int i=0; i < futures.size(); i++) {
+				for (final WSMatch match : getMatches(futures.get(i), i + 1)) {
+					game++;
+					writer.write("models.Game(g" + game + "):\n");
+					writer.write("    number:        " + game + "\n");
+					writer.write("    homeTeam:      " + teams.get(match.getHomeTeamID()) + "\n");
+					writer.write("    awayTeam:      " + teams.get(match.getAwayTeamID()) + "\n");
+					writer.write("    kickoff:       " + ((match.getKickoff() == null) ? null : df.format(match.getKickoff())) + "\n");
+					writer.write("    playday:       p" + (i + 1) + "\n");
+					writer.write("    playoff:       false\n");
+					writer.write("    ended:         false\n");
+					writer.write("    webserviceID:  " + match.getMatchID() + "\n\n");
+				}
+				writer.flush();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return game;
+	}
+
+	/**
+	 * Stores the playdays and games of a season in the database. Missing playdays are
+	 * created, games are inserted in batches of app.setup.batch (default 100) and the
+	 * persistence context is cleared after each batch. Matches whose webservice ID
+	 * already belongs to a game are skipped, so the import can be run again
+	 *
+	 * @param matches The matches by playday number
+	 * @return The number of imported games
+	 */
+	public static int importGames(final Map<Integer, List<WSMatch>> matches) {
+		final int batchSize = AppUtils.getConfiguration("app.setup.batch", DEFAULT_BATCH);
+		final Map<String, String> teamKeys = getBundesligaTeams();
+		final Map<String, Long> teams = new HashMap<String, Long>();
+		final List<Team> allTeams = Team.findAll();
+		for (final Team team : allTeams) {
+			if (team.getFlag() != null) {
+				teams.put(StringUtils.substringBefore(team.getFlag(), "."), team.getId());
+			}
+		}
+
+		final Map<Integer, Long> playdays = new HashMap<Integer, Long>();
+		for (final Integer number : matches.keySet()) {
+			Playday playday = Playday.find("byNumber", number).first();
+			if (playday == null) {
+				playday = new Playday();
+				playday.setName(number + "spieltag");
+				playday.setNumber(number);
+				playday.setCurrent(false);
+				playday.setPlayoff(false);
+				playday._save();
+			}
+			playdays.put(number, playday.getId());
+		}
 
-		int game = 1;
-		final List<String> games = new ArrayList<String>();
-		for (int k=1; k <= playdays; k++) {
-			final Document document = getDocumentFromWebService(String.valueOf(k), leagueShortcut, leagueSaison);
-			final NodeList nodeList = document.getElementsByTagName("Matchdata");
-			for (int i=0; i < nodeList.getLength(); i++) {
-				final Node node = nodeList.item(i);
-				final NodeList childs = node.getChildNodes();
-
-				String webserviceID = null;
-				String kickoff = null;
-				String homeTeam = null;
-				String awayTeam = null;
-
-				for (int j=0; j < childs.getLength(); j++) {
-					final Node childNode = childs.item(j);
-					final String name = childNode.getNodeName();
-					String value = childNode.getTextContent();
-
-					if ("matchID".equals(name)) {
-						webserviceID = value;
-					} else if (("matchDateTimeUTC").equals(name)) {
-						value = value.replace("T", " ");
-						value = value.replace("Z", "");
-						kickoff = value;
-					} else if (("idTeam1").equals(name)) {
-						homeTeam = teams.get(value);
-					} else if (("idTeam2").equals(name)) {
-						awayTeam = teams.get(value);
-					}
+		final EntityManager em = JPA.em();
+		final Set<String> webserviceIDs = new HashSet<String>(em.createQuery("SELECT g.webserviceID FROM Game g WHERE g.webserviceID IS NOT NULL", String.class).getResultList());
+		int number = (int) Game.count();
+		int imported = 0;
+		int skipped = 0;
+		for (final Map.Entry<Integer, List<WSMatch>> entry : matches.entrySet()) {
+			for (final WSMatch match : entry.getValue()) {
+				if (match.getKickoff() == null) {
+					Logger.warn("Skipping match " + match.getMatchID() + " without kickoff");
+					continue;
+				}
+				if ((match.getMatchID() == null) || !webserviceIDs.add(match.getMatchID())) {
+					skipped++;
+					continue;
 				}
 
-				games.add("models.Game(g" + game + "):<br />");
-				games.add("&nbsp;&nbsp;&nbsp;&nbsp;number:        " + game + "<br />");
-				games.add("&nbsp;&nbsp;&nbsp;&nbsp;homeTeam:      " + homeTeam + "<br />");
-				games.add("&nbsp;&nbsp;&nbsp;&nbsp;awayTeam:      " + awayTeam + "<br />");
-				games.add("&nbsp;&nbsp;&nbsp;&nbsp;kickoff:       " + kickoff + "<br />");
-				games.add("&nbsp;&nbsp;&nbsp;&nbsp;playday:       p" + k + "<br />");
-				games.add("&nbsp;&nbsp;&nbsp;&nbsp;playoff:       false<br />");
-				games.add("&nbsp;&nbsp;&nbsp;&nbsp;ended:         false<br />");
-				games.add("&nbsp;&nbsp;&nbsp;&nbsp;webserviceID:  " + webserviceID + "<br />");
-				games.add("<br />");
-				game++;
+				number++;
+				final Game game = new Game();
+				game.setNumber(number);
+				game.setHomeTeam(getReference(em, teams.get(teamKeys.get(match.getHomeTeamID()))));
+				game.setAwayTeam(getReference(em, teams.get(teamKeys.get(match.getAwayTeamID()))));
+				game.setKickoff(match.getKickoff());
+				game.setPlayday(em.getReference(Playday.class, playdays.get(entry.getKey())));
+				game.setPlayoff(false);
+				game.setEnded(false);
+				game.setWebserviceID(match.getMatchID());
+				em.persist(game);
+
+				imported++;
+				if ((imported % batchSize) == 0) {
+					AppUtils.flushAndClear();
+				}
 			}
 		}
+		AppUtils.flushAndClear();
+		if (skipped > 0) {
+			Logger.info("Skipped " + skipped + " matches which have already been imported");
+		}
+		if (imported > 0) {
+			ScheduleUtils.invalidate();
+			CacheUtils.bumpDataVersion();
+		}
 
-		return games;
+		return imported;
 	}
 
 	public static Map<String, String> getBundesligaTeams() {
@@ -99,58 +223,69 @@ public class SetupUtils implements AppConstants{
 		return teams;
 	}
 
-	public static Document getDocumentFromWebService(final String group, final String leagueShortcut, final String leagueSaison) {
-		final StringBuilder buffer = new StringBuilder();
-		buffer.append("<soap12:Envelope xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\" xmlns:soap12=\"http://www.w3.org/2003/05/soap-envelope\">");
-		buffer.append("<soap12:Body>");
-		buffer.append("<GetMatchdataByGroupLeagueSaison xmlns=\"http://msiggi.de/Sportsdata/Webservices\">");
-		buffer.append("<groupOrderID>" + group + "</groupOrderID>");
-		buffer.append("<leagueShortcut>" + leagueShortcut + "</leagueShortcut>");
-		buffer.append("<leagueSaison>" + leagueSaison + "</leagueSaison>");
-		buffer.append("</GetMatchdataByGroupLeagueSaison>");
-		buffer.append("</soap12:Body>");
-		buffer.append("</soap12:Envelope>");
-
-		Document document = null;
-		try {
-			document = WS.url(WS_URL).setHeader("Content-Type", WS_CONTENT_TYPE).setHeader("charset", WS_ENCODING).body(buffer.toString()).post().getXml();
-		} catch (final Exception e) {
-			e.printStackTrace();
+	/**
+	 * Parses a kickoff in UTC as returned by the WebService, e.g. 2013-08-09T18:30:00Z
+	 *
+	 * @param value The kickoff
+	 * @return The kickoff, null if the value could not be parsed
+	 */
+	public static Date parseKickoff(final String value) {
+		return parseKickoff(getKickoffFormat(), value);
+	}
+
+	private static List<Future<List<WSMatch>>> submit(final ExecutorService executor, final ResultsProvider provider, final int playdays, final String leagueShortcut, final String leagueSaison) {
+		final List<Future<List<WSMatch>>> futures = new ArrayList<Future<List<WSMatch>>>();
+		for (int i=1; i <= playdays; i++) {
+			final int playday = i;
+			futures.add(executor.submit(new Callable<List<WSMatch>>() {
+				@Override
+				public List<WSMatch> call() throws Exception {
+					return provider.getMatches(playday, leagueShortcut, leagueSaison);
+				}
+			}));
 		}
 
-		return document;
+		return futures;
 	}
 
-	public static List<String> generatePlaydays(final int count) {
-		final List<String> playdays = new ArrayList<String>();
-		for (int i=1; i <= count; i++) {
-			playdays.add("models.Playday(p" + i +"):<br />");
-			playdays.add("&nbsp;&nbsp;&nbsp;&nbsp;name:          " + i + "spieltag<br />");
-			playdays.add("&nbsp;&nbsp;&nbsp;&nbsp;current:       false<br />");
-			playdays.add("&nbsp;&nbsp;&nbsp;&nbsp;playoff:       false<br />");
-			playdays.add("&nbsp;&nbsp;&nbsp;&nbsp;number:        " + i + "<br />");
-			playdays.add("<br />");
+	private static List<WSMatch> getMatches(final Future<List<WSMatch>> future, final int playday) {
+		try {
+			final List<WSMatch> matches = future.get();
+			if (matches != null) {
+				return matches;
+			}
+			Logger.warn("Skipped matchdata of group " + playday + " as the WebService circuit breaker is open");
+		} catch (final ExecutionException e) {
+			Logger.error("Failed to load matchdata of group " + playday + " from WebService", e.getCause());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			Logger.error("Interrupted while loading matchdata of group " + playday + " from WebService");
 		}
 
-		return playdays;
+		return new ArrayList<WSMatch>();
 	}
 
-	public static Date getKickoffFromDocument(final Document document) {
-		Date date = new Date();
-		if (document != null) {
-			final NodeList nodeList = document.getElementsByTagName("matchDateTimeUTC");
-			if ((nodeList != null) && (nodeList.getLength() > 0)) {
-				String kickoff = nodeList.item(0).getTextContent();
-				kickoff = kickoff.replace("T", " ");
-				kickoff = kickoff.replace("Z", "");
-				final SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd kk:mm:ss");
-				df.setTimeZone(TimeZone.getTimeZone("UTC"));
-				try {
-					date = df.parse(kickoff);
-				} catch (final ParseException e) {
-					Logger.error("Failed to parse Date for kickoff update", e);
-				}
-			}
+	private static ExecutorService createExecutor(final int playdays) {
+		return Executors.newFixedThreadPool(Math.max(1, Math.min(playdays, AppUtils.getConfiguration("app.setup.threads", DEFAULT_THREADS))));
+	}
+
+	private static Team getReference(final EntityManager em, final Long id) {
+		return (id == null) ? null : em.getReference(Team.class, id);
+	}
+
+	private static SimpleDateFormat getKickoffFormat() {
+		final SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd kk:mm:ss");
+		df.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+		return df;
+	}
+
+	private static Date parseKickoff(final SimpleDateFormat df, final String value) {
+		Date date = null;
+		try {
+			date = df.parse(value.replace("T", " ").replace("Z", "").trim());
+		} catch (final ParseException e) {
+			Logger.error("Failed to parse Date for kickoff update", e);
 		}
 
 		return date;
@@ -166,7 +301,7 @@ public class SetupUtils implements AppConstants{
 			user.setRegistered(new Date());
 			user.setActive(true);
 			user.setSalt(salt);
-			user.setUserpass(AppUtils.hashPassword("user" + i, salt));
+			user.setUserpass(PasswordUtils.hash("user" + i, salt));
 			user._save();
 		}
 	}
@@ -0,0 +1,140 @@
+package utils;
+
+import interfaces.AppConstants;
+
+import java.util.Date;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import models.ConfirmationType;
+import models.Task;
+import models.TaskType;
+import models.User;
+import notifiers.Mails;
+
+import org.apache.commons.lang.StringUtils;
+
+import play.Logger;
+import play.i18n.Lang;
+
+public class TaskUtils implements AppConstants {
+    private static final int MAX_ATTEMPTS = 5;
+    private static final int MAIL_TIMEOUT = 60;
+
+    /**
+     * Stores a task for sending a confirmation mail. The task is saved in the current
+     * transaction and executed by the TaskJob once the transaction is committed
+     *
+     * @param user The user to send the confirmation to
+     * @param token The token of the confirmation
+     * @param confirmationType The type of the confirmation
+     */
+    public static void confirmationMail(final User user, final String token, final ConfirmationType confirmationType) {
+        final Task task = createTask(TaskType.CONFIRMATIONMAIL, user);
+        task.setToken(token);
+        task.setConfirmType(confirmationType);
+        task._save();
+    }
+
+    /**
+     * Stores a task for informing an admin about a new user
+     *
+     * @param user The new user
+     * @param admin The admin to inform
+     */
+    public static void newUserMail(final User user, final User admin) {
+        final Task task = createTask(TaskType.NEWUSERMAIL, user);
+        task.setRecipientId(admin.getId());
+        task._save();
+    }
+
+    /**
+     * Stores a task for loading the Gravatar images of a user
+     *
+     * @param user The user
+     */
+    public static void gravatar(final User user) {
+        createTask(TaskType.GRAVATAR, user)._save();
+    }
+
+    /**
+     * Executes a task. If the task fails, it is scheduled again with an increasing
+     * delay, and dropped after five failed attempts
+     *
+     * @param task The task to execute
+     * @return True if the task has been executed, false otherwise
+     */
+    public static boolean execute(final Task task) {
+        boolean executed = false;
+        final String language = Lang.get();
+        try {
+            if (StringUtils.isNotBlank(task.getLanguage())) {
+                Lang.set(task.getLanguage());
+            }
+
+            final User user = User.findById(task.getUserId());
+            if (user == null) {
+                Logger.warn("Dropping task " + task.getTaskType() + " as user " + task.getUserId() + " does not exist anymore");
+            } else if (TaskType.CONFIRMATIONMAIL.equals(task.getTaskType())) {
+                waitForMail(Mails.confirm(user, task.getToken(), task.getConfirmType()));
+            } else if (TaskType.NEWUSERMAIL.equals(task.getTaskType())) {
+                final User admin = User.findById(task.getRecipientId());
+                if (admin != null) {
+                    waitForMail(Mails.newuser(user, admin));
+                }
+            } else if (TaskType.GRAVATAR.equals(task.getTaskType())) {
+                setGravatar(user);
+            }
+
+            task._delete();
+            executed = true;
+        } catch (final Exception e) {
+            final int attempts = task.getAttempts() + 1;
+            if (attempts >= MAX_ATTEMPTS) {
+                Logger.error("Dropping task " + task.getTaskType() + " for user " + task.getUserId() + " after " + attempts + " attempts", e);
+                task._delete();
+            } else {
+                Logger.warn("Task " + task.getTaskType() + " for user " + task.getUserId() + " failed, retrying. " + e);
+                task.setAttempts(attempts);
+                task.setDue(new Date(System.currentTimeMillis() + (attempts * attempts * 60000L)));
+                task._save();
+            }
+        } finally {
+            // the job thread is shared, so do not leak the language of the task
+            Lang.set(language);
+        }
+
+        return executed;
+    }
+
+    private static void setGravatar(final User user) {
+        final String avatar = AppUtils.getGravatarImage(user.getEmail(), "retro", PICTURELARGE);
+        final String avatarSmall = AppUtils.getGravatarImage(user.getEmail(), "retro", PICTURESMALL);
+        if (StringUtils.isNotBlank(avatar)) {
+            user.setPictureLarge(avatar);
+        }
+        if (StringUtils.isNotBlank(avatarSmall)) {
+            user.setPicture(avatarSmall);
+        }
+        user._save();
+        CacheUtils.bumpDataVersion();
+    }
+
+    private static void waitForMail(final Future<Boolean> sent) throws Exception {
+        if ((sent != null) && !Boolean.TRUE.equals(sent.get(MAIL_TIMEOUT, TimeUnit.SECONDS))) {
+            throw new IllegalStateException("Mail could not be sent");
+        }
+    }
+
+    private static Task createTask(final TaskType taskType, final User user) {
+        final Date now = new Date();
+        final Task task = new Task();
+        task.setTaskType(taskType);
+        task.setUserId(user.getId());
+        task.setLanguage(Lang.get());
+        task.setCreated(now);
+        task.setDue(now);
+
+        return task;
+    }
+}
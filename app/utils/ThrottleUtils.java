@@ -0,0 +1,150 @@
+package utils;
+
+import interfaces.AppConstants;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+
+import play.Logger;
+
+public class ThrottleUtils implements AppConstants {
+    private static final int STRIPES = 16;
+    private static final int DEFAULT_WINDOW = 300;
+    private static final int DEFAULT_USER_ATTEMPTS = 10;
+    private static final int DEFAULT_IP_ATTEMPTS = 30;
+    private static final int DEFAULT_KEYS = 10000;
+    private static final SlidingWindow users = new SlidingWindow(AppUtils.getConfiguration("app.login.attempts.user", DEFAULT_USER_ATTEMPTS));
+    private static final SlidingWindow addresses = new SlidingWindow(AppUtils.getConfiguration("app.login.attempts.ip", DEFAULT_IP_ATTEMPTS));
+
+    /**
+     * Checks if the failed login attempts for a username from a remote address or
+     * from the remote address in total have reached the configured limits within
+     * the configured window. The check itself is not counted as an attempt
+     *
+     * @param username The username or email the user tries to log in with
+     * @param remoteAddress The remote address of the request
+     * @return True if the attempt should be rejected, false otherwise
+     */
+    public static boolean isThrottled(final String username, final String remoteAddress) {
+        final long now = System.currentTimeMillis();
+        final boolean throttled = addresses.isFull(getAddressKey(remoteAddress), now)
+                || users.isFull(getUserKey(username, remoteAddress), now);
+
+        if (throttled) {
+            Logger.warn("Login throttled for user '" + username + "' from " + remoteAddress);
+        }
+
+        return throttled;
+    }
+
+    /**
+     * Records a failed login attempt for a username from a remote address. A username
+     * is only throttled for the address the failed attempts came from, so failed
+     * attempts from other addresses can not lock its owner out
+     *
+     * @param username The username or email the user tried to log in with
+     * @param remoteAddress The remote address of the request
+     */
+    public static void failed(final String username, final String remoteAddress) {
+        final long now = System.currentTimeMillis();
+        addresses.add(getAddressKey(remoteAddress), now);
+        users.add(getUserKey(username, remoteAddress), now);
+    }
+
+    /**
+     * Removes the recorded failed attempts for a username from a remote address
+     * after a successful login
+     *
+     * @param username The username or email the user logged in with
+     * @param remoteAddress The remote address of the request
+     */
+    public static void reset(final String username, final String remoteAddress) {
+        users.reset(getUserKey(username, remoteAddress));
+    }
+
+    private static String getAddressKey(final String remoteAddress) {
+        return StringUtils.defaultString(remoteAddress);
+    }
+
+    private static String getUserKey(final String username, final String remoteAddress) {
+        return StringUtils.lowerCase(StringUtils.defaultString(username)) + "|" + getAddressKey(remoteAddress);
+    }
+
+    /**
+     * Sliding window of failed attempt timestamps per key. The keys are spread over
+     * lock-striped maps, each holding at most its share of the configured number of
+     * keys and dropping the least recently used key when full
+     */
+    static class SlidingWindow {
+        private final Stripe[] stripes = new Stripe[STRIPES];
+        private final int limit;
+        private final long window;
+
+        SlidingWindow(final int limit) {
+            this.limit = limit;
+            this.window = AppUtils.getConfiguration("app.login.window", DEFAULT_WINDOW) * 1000L;
+
+            final int keys = Math.max(1, AppUtils.getConfiguration("app.login.keys", DEFAULT_KEYS) / STRIPES);
+            for (int i = 0; i < STRIPES; i++) {
+                this.stripes[i] = new Stripe(keys);
+            }
+        }
+
+        boolean isFull(final String key, final long now) {
+            final Stripe stripe = getStripe(key);
+            synchronized (stripe) {
+                final long[] attempts = stripe.get(key);
+                if (attempts == null) {
+                    return false;
+                }
+
+                // attempts[0] holds the position of the oldest timestamp in the ring
+                final long oldest = attempts[(int) attempts[0] + 1];
+                return (oldest > 0) && (oldest > (now - this.window));
+            }
+        }
+
+        void add(final String key, final long now) {
+            final Stripe stripe = getStripe(key);
+            synchronized (stripe) {
+                long[] attempts = stripe.get(key);
+                if (attempts == null) {
+                    attempts = new long[this.limit + 1];
+                    stripe.put(key, attempts);
+                }
+
+                final int oldest = (int) attempts[0];
+                attempts[oldest + 1] = now;
+                attempts[0] = (oldest + 1) % this.limit;
+            }
+        }
+
+        void reset(final String key) {
+            final Stripe stripe = getStripe(key);
+            synchronized (stripe) {
+                stripe.remove(key);
+            }
+        }
+
+        private Stripe getStripe(final String key) {
+            return this.stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+        }
+    }
+
+    private static class Stripe extends LinkedHashMap<String, long[]> {
+        private static final long serialVersionUID = -2981672364195626812L;
+        private final int maxSize;
+
+        Stripe(final int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, long[]> eldest) {
+            return size() > this.maxSize;
+        }
+    }
+}
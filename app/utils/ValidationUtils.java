@@ -2,7 +2,6 @@ package utils;
 
 import interfaces.AppConstants;
 
-import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -23,25 +22,22 @@ public class ValidationUtils implements AppConstants{
      * @return true if email exists, false otherwise
      */
     public static boolean emailExists(final String email) {
-        boolean exists = false;
-        final List<Confirmation> confirmations = Confirmation.findAll();
-        for (final Confirmation confirmation : confirmations) {
-            String value = confirmation.getConfirmValue();
-            value = Crypto.decryptAES(value);
-
-            if (value.equalsIgnoreCase(email)) {
-                exists = true;
-            }
+        if (Confirmation.count("byConfirmHash", getEmailHash(email)) > 0) {
+            return true;
         }
 
-        if (!exists) {
-            final User user = User.find("byEmail", email).first();
-            if (user != null) {
-                exists = true;
-            }
-        }
+        return User.count("byEmail", email) > 0;
+    }
 
-        return exists;
+    /**
+     * Creates a keyed hash of a normalized email address, which is stored with
+     * pending email changes to look them up without decrypting the confirmations
+     *
+     * @param email The email
+     * @return The HMAC of the trimmed and lower-cased email
+     */
+    public static String getEmailHash(final String email) {
+        return Crypto.sign(StringUtils.lowerCase(StringUtils.trim(StringUtils.defaultString(email))));
     }
 
     /**
@@ -17,6 +17,7 @@ import models.Pagination;
 import models.Playday;
 import models.Team;
 import models.User;
+import models.UserSummary;
 
 import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.commons.lang.StringUtils;
@@ -24,6 +25,7 @@ import org.apache.commons.lang.StringUtils;
 import play.Play;
 import play.i18n.Lang;
 import play.i18n.Messages;
+import play.libs.Crypto;
 import play.templates.JavaExtensions;
 
 public class ViewUtils extends JavaExtensions implements AppConstants{
@@ -326,9 +328,24 @@ public class ViewUtils extends JavaExtensions implements AppConstants{
         return StringEscapeUtils.unescapeHtml(html);
     }
 
+    public static String highlight(final String html, final String username) {
+        if (StringUtils.isBlank(html) || StringUtils.isBlank(username)) {
+            return html;
+        }
+
+        final String row = "data-user=\"" + username + "\"";
+        return html.replace(row, "class=\"connecteduser\" " + row);
+    }
+
+    public static String getPlaceTrend(final UserSummary user) {
+        return getPlaceTrend(user.getPlace(), user.getPreviousPlace());
+    }
+
     public static String getPlaceTrend(final User user) {
-        final int currentPlace = user.getPlace();
-        final int previousPlace = user.getPreviousPlace();
+        return getPlaceTrend(user.getPlace(), user.getPreviousPlace());
+    }
+
+    private static String getPlaceTrend(final int currentPlace, final int previousPlace) {
         String trend = "";
 
 		if (previousPlace > 0) {
@@ -410,6 +427,46 @@ public class ViewUtils extends JavaExtensions implements AppConstants{
         return pagination;
     }
 
+    /**
+     * Creates an opaque cursor pointing after the given user in the ranking
+     *
+     * @param user The last user of the current page
+     * @param version The calculation version the ranking is based on
+     * @return The encrypted cursor, empty string if user is null
+     */
+    public static String getCursor(final User user, final long version) {
+        if (user == null) {
+            return "";
+        }
+
+        return Crypto.encryptAES(version + ":" + user.getPlace() + ":" + user.getId());
+    }
+
+    /**
+     * Parses an opaque cursor created by getCursor
+     *
+     * @param cursor The encrypted cursor
+     * @return Array containing the calculation version [0], the place [1] and the user id [2], null if invalid
+     */
+    public static long[] parseCursor(final String cursor) {
+        long[] values = null;
+        if (StringUtils.isNotBlank(cursor)) {
+            try {
+                final String [] parts = Crypto.decryptAES(cursor).split(":");
+                if (parts.length == 3) {
+                    values = new long[3];
+                    for (int i=0; i < parts.length; i++) {
+                        values[i] = Long.parseLong(parts[i]);
+                    }
+                }
+            } catch (final Exception e) {
+                values = null;
+            }
+        }
+
+        return values;
+    }
+
     public static boolean getJobStatus(final String jobName) {
         boolean status = false;
 
@@ -1,97 +1,302 @@
 package utils;
 
 import interfaces.AppConstants;
+import interfaces.ResultsProvider;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import models.Game;
-import models.User;
-import models.WSResult;
 import models.WSResults;
-import notifiers.Mails;
 
 import org.apache.commons.lang.StringUtils;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 import play.Logger;
-import play.libs.WS;
+import play.Play;
+import providers.CachingResultsProvider;
+import providers.CircuitBreakerResultsProvider;
+import providers.JsonResultsProvider;
+import providers.SoapResultsProvider;
 
 public class WSUtils implements AppConstants {
+	private static final String DEFAULT_TIMEOUT = "10s";
+	private static final String DEFAULT_LEAGUE = "WM-2014";
+	private static final String DEFAULT_SEASON = "2014";
+	private static final int DEFAULT_THREADS = 4;
+	private static final int DEFAULT_CACHE_SIZE = 1000;
+	private static final int DEFAULT_CACHE_RESULTS = 120;
+	private static final int DEFAULT_CACHE_KICKOFFS = 21600;
+	private static final int DEFAULT_BREAKER_FAILURES = 5;
+	private static final int DEFAULT_BREAKER_OPEN = 300;
+	private static final ExecutorService executor = createExecutor();
+	private static final CircuitBreaker breaker = new CircuitBreaker(AppUtils.getConfiguration("app.ws.breaker.failures", DEFAULT_BREAKER_FAILURES),
+			AppUtils.getConfiguration("app.ws.breaker.open", DEFAULT_BREAKER_OPEN) * 1000L);
+	private static volatile ResultsProvider provider;
+
 	public static WSResults getResultsFromWebService(final Game game) {
 		WSResults wsResults = new WSResults();
 		wsResults.setUpdated(false);
 		final String matchID = game.getWebserviceID();
 		if (StringUtils.isNotBlank(matchID)) {
-			final Document document = getDocumentFromWebService(matchID);
-			if ((document != null) && (document.getElementsByTagName("matchIsFinished").getLength() > 0)) {
-				final String matchIsFinished = document.getElementsByTagName("matchIsFinished").item(0).getTextContent();
-				if (("true").equalsIgnoreCase(matchIsFinished)) {
-					wsResults = getEndResult(wsResults, document);
-					wsResults.setUpdated(true);
+			try {
+				final WSResults results = getProvider().getResults(matchID);
+				if (results != null) {
+					wsResults = results;
 				}
+			} catch (final Exception e) {
+				Logger.error("Updating of results from WebService failed", e);
 			}
+			AlertUtils.flush(System.currentTimeMillis());
 		}
 		return wsResults;
 	}
 
-	public static Document getDocumentFromWebService(final String matchID) {
-		final StringBuilder buffer = new StringBuilder();
-		buffer.append("<soap12:Envelope xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\" xmlns:soap12=\"http://www.w3.org/2003/05/soap-envelope\">");
-		buffer.append("<soap12:Body>");
-		buffer.append("<GetMatchByMatchID xmlns=\"http://msiggi.de/Sportsdata/Webservices\">");
-		buffer.append("<MatchID>" + matchID + "</MatchID>");
-		buffer.append("</GetMatchByMatchID>");
-		buffer.append("</soap12:Body>");
-		buffer.append("</soap12:Envelope>");
-
-		Document document = null;
+	/**
+	 * Fetches the results of several matches concurrently on a bounded pool. Matches
+	 * whose request fails or does not finish before the deadline are left out. Failures
+	 * are collected for the digest to the admins, and no requests are sent while the
+	 * circuit breaker is open
+	 *
+	 * @param matchIDs The webservice IDs of the matches
+	 * @param deadline The maximum time in milliseconds to wait for all requests
+	 * @return A map of webservice ID to results, containing the matches which could be fetched
+	 */
+	public static Map<String, WSResults> getResultsFromWebService(final Collection<String> matchIDs, final long deadline) {
+		final ResultsProvider resultsProvider = getProvider();
+		final List<String> ids = new ArrayList<String>(matchIDs);
+		final List<Callable<WSResults>> tasks = new ArrayList<Callable<WSResults>>();
+		for (final String matchID : ids) {
+			tasks.add(new Callable<WSResults>() {
+				@Override
+				public WSResults call() throws Exception {
+					return resultsProvider.getResults(matchID);
+				}
+			});
+		}
+
+		final Map<String, WSResults> results = new HashMap<String, WSResults>();
+		final List<String> failures = new ArrayList<String>();
+		int skipped = 0;
 		try {
-			document = WS.url(WS_URL).setHeader("Content-Type", WS_CONTENT_TYPE).setHeader("charset", WS_ENCODING).body(buffer.toString()).post().getXml();
-		} catch (final Exception e) {
-			final List<User> users = User.find("Admin", true).fetch();
-			for (final User user : users) {
-				Mails.error(e.getMessage(), user.getEmail());
+			final List<Future<WSResults>> futures = executor.invokeAll(tasks, deadline, TimeUnit.MILLISECONDS);
+			for (int i=0; i < futures.size(); i++) {
+				final Future<WSResults> future = futures.get(i);
+				final String matchID = ids.get(i);
+				if (future.isCancelled()) {
+					// the interrupted request records the failure for the breaker and the digest
+					failures.add(matchID + ": no response within " + deadline + " ms");
+					continue;
+				}
+
+				try {
+					final WSResults wsResults = future.get();
+					if (wsResults == null) {
+						skipped++;
+					} else {
+						results.put(matchID, wsResults);
+					}
+				} catch (final ExecutionException e) {
+					failures.add(matchID + ": " + e.getCause());
+				}
 			}
-			Logger.error("Updating of results from WebService failed", e);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			failures.add("Interrupted while waiting for the WebService");
+		}
+
+		if (!failures.isEmpty()) {
+			Logger.error("Updating of results from WebService failed for " + failures.size() + " of " + ids.size() + " matches: " + failures);
+		}
+		if (skipped > 0) {
+			Logger.warn("Skipped " + skipped + " of " + ids.size() + " matches as the WebService circuit breaker is open");
 		}
-		return document;
+		AlertUtils.flush(System.currentTimeMillis());
+
+		return results;
 	}
 
-	public static WSResults getEndResult(final WSResults wsResults, final Document document) {
-		final Map<String, WSResult> resultsMap = new HashMap<String, WSResult>();
-		final Node matchResults = document.getElementsByTagName("matchResults").item(0);
-		final NodeList matchResult = matchResults.getChildNodes();
+	/**
+	 * Loads the kickoff of a match
+	 *
+	 * @param matchID The webservice ID of the match
+	 * @return The kickoff, null if the request failed, the circuit breaker is open or the match has no kickoff
+	 */
+	public static Date getKickoff(final String matchID) {
+		Date kickoff = null;
+		try {
+			kickoff = getProvider().getKickoff(matchID);
+		} catch (final Exception e) {
+			Logger.error("Loading kickoff of match " + matchID + " from WebService failed", e);
+		}
+		return kickoff;
+	}
 
-		for (int i=0; i < matchResult.getLength(); i++) {
-			final NodeList singleResults = matchResult.item(i).getChildNodes();
-			final String name = singleResults.item(0).getTextContent();
+	/**
+	 * Loads the kickoffs of all matches of a playday with a single request
+	 *
+	 * @param playday The number of the playday
+	 * @param leagueShortcut The shortcut of the league, e.g. bl1
+	 * @param leagueSaison The season, e.g. 2013
+	 * @return The kickoffs by webservice ID, empty if the request failed or the circuit breaker is open
+	 */
+	public static Map<String, Date> getKickoffs(final int playday, final String leagueShortcut, final String leagueSaison) {
+		Map<String, Date> kickoffs = null;
+		try {
+			kickoffs = getProvider().getKickoffs(playday, leagueShortcut, leagueSaison);
+		} catch (final Exception e) {
+			Logger.error("Loading kickoffs of playday " + playday + " from WebService failed", e);
+		}
+		return (kickoffs == null) ? new HashMap<String, Date>() : kickoffs;
+	}
 
-			if (StringUtils.isBlank(name)) {
-				continue;
+	/**
+	 * Returns the configured results provider. app.ws.provider selects the SOAP
+	 * WebService (soap, default) or the JSON API (json), app.ws.url overrides the
+	 * address of the provider. Responses are cached for app.ws.cache.results seconds
+	 * for running matches and app.ws.cache.kickoffs seconds for kickoffs and finished
+	 * matches, with at most app.ws.cache.size entries. Only requests missing the cache
+	 * pass the circuit breaker and count for it
+	 *
+	 * @return The results provider
+	 */
+	public static ResultsProvider getProvider() {
+		ResultsProvider resultsProvider = provider;
+		if (resultsProvider == null) {
+			final String url = Play.configuration.getProperty("app.ws.url");
+			if ("json".equalsIgnoreCase(StringUtils.trim(Play.configuration.getProperty("app.ws.provider")))) {
+				resultsProvider = new JsonResultsProvider(StringUtils.isNotBlank(url) ? url.trim() : WS_JSON_URL);
+			} else {
+				resultsProvider = new SoapResultsProvider(StringUtils.isNotBlank(url) ? url.trim() : WS_URL);
 			}
+			resultsProvider = new CachingResultsProvider(new CircuitBreakerResultsProvider(resultsProvider, breaker), AppUtils.getConfiguration("app.ws.cache.size", DEFAULT_CACHE_SIZE),
+					AppUtils.getConfiguration("app.ws.cache.results", DEFAULT_CACHE_RESULTS) * 1000L, AppUtils.getConfiguration("app.ws.cache.kickoffs", DEFAULT_CACHE_KICKOFFS) * 1000L);
+			provider = resultsProvider;
+		}
 
-			final WSResult wsResult = new WSResult();
-			String key = null;
-			if (("Endergebnis").equalsIgnoreCase(name)) {
-				key = "90";
-			} else if (("Verlängerung").equalsIgnoreCase(name)) {
-				key = "120";
-			} else if (("Elfmeterschiessen").equalsIgnoreCase(name)) {
-				key = "121";
-			}
+		return resultsProvider;
+	}
 
-			if (StringUtils.isNotBlank(key)) {
-				wsResult.setHomeScore(singleResults.item(1).getTextContent());
-				wsResult.setAwayScore(singleResults.item(2).getTextContent());
-				resultsMap.put(key, wsResult);
-			}
+	/**
+	 * Returns the response cache of the results provider
+	 *
+	 * @return The cache, null if the current provider is not cached
+	 */
+	public static CachingResultsProvider getCache() {
+		final ResultsProvider resultsProvider = getProvider();
+		return (resultsProvider instanceof CachingResultsProvider) ? (CachingResultsProvider) resultsProvider : null;
+	}
+
+	/**
+	 * Removes all cached responses of this node, e.g. after an admin changed a webservice ID
+	 */
+	public static void clearCache() {
+		final CachingResultsProvider cache = getCache();
+		if (cache != null) {
+			cache.clear();
 		}
-		wsResults.setWsResult(resultsMap);
+	}
 
-		return wsResults;
+	/**
+	 * Replaces the results provider, e.g. with one pointing to a local stub server. The
+	 * provider is guarded by the circuit breaker, but its responses are not cached
+	 *
+	 * @param resultsProvider The provider to use, null to use the configured provider again
+	 */
+	public static void setProvider(final ResultsProvider resultsProvider) {
+		provider = (resultsProvider == null) ? null : new CircuitBreakerResultsProvider(resultsProvider, breaker);
+	}
+
+	/**
+	 * Maps the name of a result to the key used in WSResults
+	 *
+	 * @param name The name of the result, e.g. Endergebnis
+	 * @return 90, 120 or 121 for the result after regular time, extra time or penalties, null otherwise
+	 */
+	public static String getResultKey(final String name) {
+		String key = null;
+		if (("Endergebnis").equalsIgnoreCase(name)) {
+			key = "90";
+		} else if (("Verlängerung").equalsIgnoreCase(name)) {
+			key = "120";
+		} else if (("Elfmeterschiessen").equalsIgnoreCase(name)) {
+			key = "121";
+		}
+
+		return key;
+	}
+
+	/**
+	 * Returns the timeout for requests to the WebService (app.ws.timeout)
+	 *
+	 * @return The timeout, e.g. 10s
+	 */
+	public static String getTimeout() {
+		final String timeout = Play.configuration.getProperty("app.ws.timeout");
+		return StringUtils.isNotBlank(timeout) ? timeout.trim() : DEFAULT_TIMEOUT;
+	}
+
+	/**
+	 * Returns the league shortcut of the tournament at the WebService (app.ws.league)
+	 *
+	 * @return The league shortcut, e.g. WM-2014
+	 */
+	public static String getLeague() {
+		final String league = Play.configuration.getProperty("app.ws.league");
+		return StringUtils.isNotBlank(league) ? league.trim() : DEFAULT_LEAGUE;
+	}
+
+	/**
+	 * Returns the season of the tournament at the WebService (app.ws.season)
+	 *
+	 * @return The season, e.g. 2014
+	 */
+	public static String getSeason() {
+		final String season = Play.configuration.getProperty("app.ws.season");
+		return StringUtils.isNotBlank(season) ? season.trim() : DEFAULT_SEASON;
+	}
+
+	/**
+	 * Checks if requests are sent to the WebService, which is not the case while the
+	 * circuit breaker is open after too many failed requests (app.ws.breaker.failures,
+	 * default 5) for the configured time (app.ws.breaker.open in seconds, default 300)
+	 *
+	 * @return True if the WebService is queried, false if the circuit breaker is open
+	 */
+	public static boolean isAvailable() {
+		return !breaker.isOpen(System.currentTimeMillis());
+	}
+
+	public static CircuitBreaker getBreaker() {
+		return breaker;
+	}
+
+	private static ExecutorService createExecutor() {
+		final int threads = AppUtils.getConfiguration("app.ws.threads", DEFAULT_THREADS);
+		final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(final Runnable runnable) {
+				final Thread thread = new Thread(runnable, "webservice-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		threadPoolExecutor.allowCoreThreadTimeOut(true);
+
+		return threadPoolExecutor;
 	}
-}
\ No newline at end of file
+}
@@ -62,4 +62,27 @@ $(document).ready(function(){
     $('#extratips').on('show.bs.collapse', function () {
     	$('#collapseExtra').html("<span class=\"glyphicon glyphicon-circle-arrow-up\">");
     })
+    var rows = $('tbody[data-cursor]');
+    if (rows.length > 0) {
+    	var loading = false;
+    	$(window).scroll(function() {
+    		var cursor = rows.attr('data-cursor');
+    		if (loading || !cursor || ($(window).scrollTop() + $(window).height() < rows.offset().top + rows.height() - 200)) {
+    			return;
+    		}
+    		loading = true;
+    		$.get(rows.attr('data-url') + '/' + cursor)
+    		.done(function(html, status, xhr) {
+    			rows.append(html);
+    			rows.attr('data-cursor', xhr.getResponseHeader('X-Next-Cursor') || '');
+    			loading = false;
+    		})
+    		.fail(function(xhr) {
+    			rows.attr('data-cursor', '');
+    			if (xhr.status == 409) {
+    				rows.closest('.table-responsive').before('<div class="alert alert-warning">' + xhr.responseText + '</div>');
+    			}
+    		});
+    	});
+    }
 });
\ No newline at end of file
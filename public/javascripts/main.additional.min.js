@@ -1 +1 @@
-$(document).ready(function(){$(".pagination").rPage();$(".credits-modal").click(function(){$("#credits").modal()});$(".alert-warning").delay(2e4).slideToggle();$(".alert-success").delay(5e3).slideToggle();$(".alert-danger").delay(1e4).slideToggle();$(".btn-success").click(function(){var e=$(this);e.button("loading")});$("img").on().tooltip();$(".admintooltip").on().tooltip();$(".bonustips").on().tooltip();$(".jobtooltip").on().tooltip();window.addEventListener("load",function(){setTimeout(function(){window.scrollTo(0,1)},0)});$("#calculations").click(function(){$.blockUI({message:"<h2>Calculating...<br/>This may take a minute!</h2>"});setTimeout($.unblockUI,1e5)});if($(".editable").length>0){$(".editable").editable({success:function(e,t){iosOverlay({text:"Saved!",duration:2e3,icon:"/public/img/check.png"})}});$(".updateable").click(function(){var e=$(this).attr("data-url");if(e!=null){$.get(e).done(function(){iosOverlay({text:"Saved!",duration:2e3,icon:"/public/img/check.png"})}).fail(function(){iosOverlay({text:"Error!",duration:2e3,icon:"/public/img/cross.png"})})}})}$("#extratips").on("hidden.bs.collapse",function(){$("#collapseExtra").html('<span class="glyphicon glyphicon-circle-arrow-down">')});$("#extratips").on("show.bs.collapse",function(){$("#collapseExtra").html('<span class="glyphicon glyphicon-circle-arrow-up">')})})
\ No newline at end of file
+$(document).ready(function(){$(".pagination").rPage();$(".credits-modal").click(function(){$("#credits").modal()});$(".alert-warning").delay(2e4).slideToggle();$(".alert-success").delay(5e3).slideToggle();$(".alert-danger").delay(1e4).slideToggle();$(".btn-success").click(function(){var e=$(this);e.button("loading")});$("img").on().tooltip();$(".admintooltip").on().tooltip();$(".bonustips").on().tooltip();$(".jobtooltip").on().tooltip();window.addEventListener("load",function(){setTimeout(function(){window.scrollTo(0,1)},0)});$("#calculations").click(function(){$.blockUI({message:"<h2>Calculating...<br/>This may take a minute!</h2>"});setTimeout($.unblockUI,1e5)});if($(".editable").length>0){$(".editable").editable({success:function(e,t){iosOverlay({text:"Saved!",duration:2e3,icon:"/public/img/check.png"})}});$(".updateable").click(function(){var e=$(this).attr("data-url");if(e!=null){$.get(e).done(function(){iosOverlay({text:"Saved!",duration:2e3,icon:"/public/img/check.png"})}).fail(function(){iosOverlay({text:"Error!",duration:2e3,icon:"/public/img/cross.png"})})}})}$("#extratips").on("hidden.bs.collapse",function(){$("#collapseExtra").html('<span class="glyphicon glyphicon-circle-arrow-down">')});$("#extratips").on("show.bs.collapse",function(){$("#collapseExtra").html('<span class="glyphicon glyphicon-circle-arrow-up">')});var t=$("tbody[data-cursor]");if(t.length>0){var n=false;$(window).scroll(function(){var e=t.attr("data-cursor");if(n||!e||$(window).scrollTop()+$(window).height()<t.offset().top+t.height()-200){return}n=true;$.get(t.attr("data-url")+"/"+e).done(function(e,r,i){t.append(e);t.attr("data-cursor",i.getResponseHeader("X-Next-Cursor")||"");n=false}).fail(function(e){t.attr("data-cursor","");if(e.status==409){t.closest(".table-responsive").before('<div class="alert alert-warning">'+e.responseText+"</div>")}})})}})
\ No newline at end of file
@@ -0,0 +1,55 @@
+package benchmark;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import play.Logger;
+import play.test.UnitTest;
+import utils.AppUtils;
+
+/**
+ * Only runs when the JVM is started with -Dbenchmarks=true
+ */
+public class PasswordBenchmarkTests extends UnitTest {
+    private static final int ITERATIONS = 5;
+
+    @Before
+    public void init() {
+        Assume.assumeTrue(Boolean.getBoolean("benchmarks"));
+    }
+
+    @Test
+    public void testHashPasswordBenchmark() {
+        final String salt = AppUtils.getSettings().getAppSalt();
+
+        // warm up both implementations before measuring
+        legacyHashPassword("warmup", "foo", salt);
+        AppUtils.hashPassword("warmup", "foo");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            legacyHashPassword("user" + i, "foo", salt);
+        }
+        final long legacy = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            AppUtils.hashPassword("user" + i, "foo");
+        }
+        final long current = (System.nanoTime() - start) / ITERATIONS;
+
+        Logger.info("hashPassword with %d rounds: legacy %d ms, current %d ms per hash",
+                AppUtils.getPasswordRounds(), legacy / 1000000, current / 1000000);
+    }
+
+    private static String legacyHashPassword(final String userpass, final String usersalt, final String salt) {
+        String hash = "";
+        for (int i = 1; i <= AppUtils.getPasswordRounds(); i++) {
+            hash = DigestUtils.sha512Hex(hash + salt + userpass + usersalt);
+        }
+
+        return hash;
+    }
+}
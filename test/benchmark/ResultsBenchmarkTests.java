@@ -0,0 +1,69 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import models.WSResults;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import play.Logger;
+import play.Play;
+import play.test.UnitTest;
+import providers.JsonResultsProvider;
+import providers.SoapResultsProvider;
+import providers.StubServer;
+import utils.WSUtils;
+
+/**
+ * Only runs when the JVM is started with -Dbenchmarks=true
+ */
+public class ResultsBenchmarkTests extends UnitTest {
+    private static final int MATCHES = 100;
+    private static final long LATENCY = 50;
+
+    @Before
+    public void init() {
+        Assume.assumeTrue(Boolean.getBoolean("benchmarks"));
+    }
+
+    @Test
+    public void testIngestionBenchmark() throws Exception {
+        final StubServer stubServer = new StubServer(Play.getFile("test/fixtures/ws"), LATENCY, 0);
+        stubServer.start(0);
+        try {
+            final List<String> matchIDs = new ArrayList<String>();
+            for (int i = 0; i < MATCHES; i++) {
+                matchIDs.add(String.valueOf(30000 + i));
+            }
+
+            WSUtils.setProvider(new SoapResultsProvider(stubServer.getUrl()));
+            final long soap = ingest(matchIDs);
+
+            WSUtils.setProvider(new JsonResultsProvider(stubServer.getUrl()));
+            final long json = ingest(matchIDs);
+
+            Logger.info("Ingested %d matches with %d ms latency: SOAP %d ms (%d matches/s), JSON %d ms (%d matches/s)",
+                    MATCHES, LATENCY, soap, (MATCHES * 1000L) / Math.max(1, soap), json, (MATCHES * 1000L) / Math.max(1, json));
+        } finally {
+            WSUtils.setProvider(null);
+            stubServer.stop();
+        }
+    }
+
+    private static long ingest(final List<String> matchIDs) {
+        final long start = System.currentTimeMillis();
+        final Map<String, WSResults> results = WSUtils.getResultsFromWebService(matchIDs, 60000);
+        final long duration = System.currentTimeMillis() - start;
+
+        assertEquals(matchIDs.size(), results.size());
+        for (final WSResults wsResults : results.values()) {
+            assertTrue(wsResults.isUpdated());
+        }
+
+        return duration;
+    }
+}
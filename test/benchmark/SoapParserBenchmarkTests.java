@@ -0,0 +1,96 @@
+package benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+import models.WSMatch;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import play.Logger;
+import play.Play;
+import play.libs.XML;
+import play.test.UnitTest;
+import providers.SoapParser;
+
+/**
+ * Only runs when the JVM is started with -Dbenchmarks=true
+ */
+public class SoapParserBenchmarkTests extends UnitTest {
+    private static final int WARMUP = 2000;
+    private static final int ITERATIONS = 10000;
+
+    @Before
+    public void init() {
+        Assume.assumeTrue(Boolean.getBoolean("benchmarks"));
+    }
+
+    @Test
+    public void testParserBenchmark() throws Exception {
+        benchmark("GetMatchByMatchID", getResponse("GetMatchByMatchID/19218.xml"));
+        benchmark("GetMatchdataByGroupLeagueSaison", getPlaydayResponse(9));
+    }
+
+    private static void benchmark(final String operation, final byte[] response) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            parseDom(response);
+            parseStax(response);
+        }
+
+        long allocated = getAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            parseDom(response);
+        }
+        final long dom = (System.nanoTime() - start) / ITERATIONS;
+        final long domAllocated = (getAllocatedBytes() - allocated) / ITERATIONS;
+
+        allocated = getAllocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            parseStax(response);
+        }
+        final long stax = (System.nanoTime() - start) / ITERATIONS;
+        final long staxAllocated = (getAllocatedBytes() - allocated) / ITERATIONS;
+
+        Logger.info("Parsed %s response of %d bytes: DOM %d us and %d bytes, StAX %d us and %d bytes per response",
+                operation, response.length, dom / 1000, domAllocated, stax / 1000, staxAllocated);
+    }
+
+    private static int parseDom(final byte[] response) throws Exception {
+        final Document document = XML.getDocument(new String(response, "UTF-8"));
+        return document.getElementsByTagName("matchDateTimeUTC").getLength() + document.getElementsByTagName("matchResult").getLength();
+    }
+
+    private static int parseStax(final byte[] response) throws Exception {
+        final List<WSMatch> matches = SoapParser.getMatches(new ByteArrayInputStream(response));
+        return matches.size() + matches.get(0).getWsResult().size();
+    }
+
+    private static long getAllocatedBytes() {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return 0;
+    }
+
+    private static byte[] getResponse(final String path) throws Exception {
+        return FileUtils.readFileToByteArray(Play.getFile("test/fixtures/ws/soap/" + path));
+    }
+
+    private static byte[] getPlaydayResponse(final int matches) throws Exception {
+        final String response = new String(getResponse("GetMatchdataByGroupLeagueSaison/default.xml"), "UTF-8");
+        final String match = StringUtils.substringBetween(response, "<GetMatchdataByGroupLeagueSaisonResult>", "</Matchdata>") + "</Matchdata>";
+
+        return response.replace(match, StringUtils.repeat(match, matches)).getBytes("UTF-8");
+    }
+}
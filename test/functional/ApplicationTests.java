@@ -105,6 +105,21 @@ public class ApplicationTests extends FunctionalTest {
         assertEquals(response.getHeader("location"), "/auth/login");
     }
 
+    @Test
+    public void testInactiveLogin() {
+        Map<String, String> params = new HashMap<String, String>();
+        params.put("username", "user555@rudeltippen.de");
+        params.put("userpass", "user555");
+        Response response = POST("/auth/authenticate", params);
+        assertStatus(302, response);
+        assertEquals(response.getHeader("location"), "/auth/login");
+
+        params.put("username", "user555");
+        response = POST("/auth/authenticate", params);
+        assertStatus(302, response);
+        assertEquals(response.getHeader("location"), "/auth/login");
+    }
+
     @Test
     public void testAuthenticatiedContent() {
         Map<String, String> params = new HashMap<String, String>();
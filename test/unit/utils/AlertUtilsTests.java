@@ -0,0 +1,88 @@
+package unit.utils;
+
+import java.util.List;
+
+import models.User;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import play.test.UnitTest;
+import utils.AlertUtils;
+
+public class AlertUtilsTests extends UnitTest {
+
+    @Before
+    public void init() {
+        AlertUtils.clear();
+    }
+
+    @After
+    public void shutdown() {
+        AlertUtils.clear();
+    }
+
+    @Test
+    public void testDigest() {
+        assertNull(AlertUtils.getDigest());
+
+        AlertUtils.success();
+        for (int i = 0; i < 3; i++) {
+            AlertUtils.failure("java.net.ConnectException: Connection refused");
+        }
+        AlertUtils.failure("No response within 45000 ms");
+        AlertUtils.alert("Circuit breaker opened, no requests for 300 s");
+
+        final String digest = AlertUtils.getDigest();
+        assertTrue(digest.startsWith("4 of 5 requests failed (80 %)"));
+        assertTrue(digest.contains("3x java.net.ConnectException: Connection refused\n"));
+        assertTrue(digest.contains("1x No response within 45000 ms\n"));
+        assertTrue(digest.contains("1x Circuit breaker opened, no requests for 300 s\n"));
+    }
+
+    @Test
+    public void testDigestBounded() {
+        for (int i = 0; i < 30; i++) {
+            AlertUtils.failure("Error " + i);
+        }
+
+        final String digest = AlertUtils.getDigest();
+        assertTrue(digest.contains("1x Error 19\n"));
+        assertFalse(digest.contains("Error 20"));
+        assertTrue(digest.contains("10x other errors"));
+    }
+
+    @Test
+    public void testOneDigestPerWindow() {
+        final long now = System.currentTimeMillis();
+        assertFalse(AlertUtils.flush(now));
+
+        AlertUtils.failure("java.net.ConnectException: Connection refused");
+        assertTrue(AlertUtils.flush(now));
+        assertNull(AlertUtils.getDigest());
+
+        AlertUtils.failure("java.net.ConnectException: Connection refused");
+        assertFalse(AlertUtils.flush(now + 60000));
+        assertNotNull(AlertUtils.getDigest());
+        assertTrue(AlertUtils.flush(now + (60 * 60000L)));
+    }
+
+    @Test
+    public void testKeepDigestIfNotSent() {
+        final List<Long> admins = User.find("SELECT u.id FROM User u WHERE u.admin = true").fetch();
+        User.em().createQuery("UPDATE User u SET u.admin = false WHERE u.id IN (:ids)").setParameter("ids", admins).executeUpdate();
+        try {
+            final long now = System.currentTimeMillis();
+            AlertUtils.failure("java.net.ConnectException: Connection refused");
+            assertFalse(AlertUtils.flush(now));
+            AlertUtils.failure("java.net.ConnectException: Connection refused");
+
+            final String digest = AlertUtils.getDigest();
+            assertTrue(digest.startsWith("2 of 2 requests failed"));
+            assertTrue(digest.contains("2x java.net.ConnectException: Connection refused\n"));
+        } finally {
+            User.em().createQuery("UPDATE User u SET u.admin = true WHERE u.id IN (:ids)").setParameter("ids", admins).executeUpdate();
+        }
+    }
+}
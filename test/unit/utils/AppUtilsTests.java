@@ -7,9 +7,11 @@ import java.util.List;
 import models.Extra;
 import models.Game;
 import models.Settings;
+import models.UserSummary;
 
 import org.junit.Test;
 
+import play.Play;
 import play.test.UnitTest;
 import utils.AppUtils;
 
@@ -20,6 +22,26 @@ public class AppUtilsTests extends UnitTest {
 		assertNotNull(AppUtils.getSettings());
 	}
 
+	@Test
+	public void testGetConfiguration() {
+		final String key = "test.configuration";
+		try {
+			assertEquals(AppUtils.getConfiguration(key, 5), 5);
+			Play.configuration.setProperty(key, " 42 ");
+			assertEquals(AppUtils.getConfiguration(key, 5), 42);
+			Play.configuration.setProperty(key, "0");
+			assertEquals(AppUtils.getConfiguration(key, 5), 5);
+			Play.configuration.setProperty(key, "-1");
+			assertEquals(AppUtils.getConfiguration(key, 5), 5);
+			Play.configuration.setProperty(key, "foo");
+			assertEquals(AppUtils.getConfiguration(key, 5), 5);
+			Play.configuration.setProperty(key, "99999999999");
+			assertEquals(AppUtils.getConfiguration(key, 5), 5);
+		} finally {
+			Play.configuration.remove(key);
+		}
+	}
+
 	@Test
 	public void testHashPassword() {
 		assertEquals(AppUtils.hashPassword("user22", "foo"), "bc423bd3c40919ed73f470d4182e2292f368607225f12f48599b9e9d2bea97586e0d930792e5381f1ebb75177abd75fc1a2ef879b2f275535d14e550c8d17b8b");
@@ -170,4 +192,22 @@ public class AppUtilsTests extends UnitTest {
 		assertNotNull(AppUtils.getTeamByReference("B-1-1"));
 		assertNotNull(AppUtils.getTeamByReference("B-1-1"));
 	}
+
+	@Test
+	public void testCurrentPlayday() {
+		AppUtils.resetApplicationCache();
+		final int number = AppUtils.getCurrentPlaydayNumber();
+		assertEquals(number, AppUtils.getCurrentPlaydayNumber());
+		assertEquals(number, AppUtils.getCurrentPlayday().getNumber());
+		assertTrue(AppUtils.appIsInizialized());
+	}
+
+	@Test
+	public void testUserSummaries() {
+		final List<UserSummary> users = AppUtils.getUserSummaries("u.active = true", "u.place ASC", 0);
+		assertNotNull(users);
+		assertEquals(AppUtils.countActiveUsers(), users.size());
+		assertEquals(users.size(), AppUtils.getAllActiveEmails().size());
+		assertTrue(AppUtils.getUserSummaries(null, "u.username ASC", 1).size() <= 1);
+	}
 }
\ No newline at end of file
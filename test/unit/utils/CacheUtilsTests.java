@@ -0,0 +1,87 @@
+package unit.utils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import models.DataVersion;
+import models.User;
+
+import org.junit.Test;
+
+import play.db.jpa.JPA;
+import play.test.UnitTest;
+import utils.CacheUtils;
+
+public class CacheUtilsTests extends UnitTest {
+
+    @Test
+    public void testDataVersion() {
+        final long version = CacheUtils.getDataVersion();
+        CacheUtils.bumpDataVersion();
+        assertEquals(version, CacheUtils.getDataVersion());
+
+        commit();
+        assertTrue(CacheUtils.getDataVersion() > version);
+    }
+
+    @Test
+    public void testRolledBackBump() {
+        final long version = CacheUtils.getTipsVersion();
+        CacheUtils.bumpTipsVersion();
+        JPA.em().getTransaction().rollback();
+        JPA.em().getTransaction().begin();
+
+        assertEquals(version, CacheUtils.getTipsVersion());
+    }
+
+    @Test
+    public void testUserVersion() {
+        final User user = new User();
+        user.setEmail("version@rudeltippen.de");
+        user.setUsername("version");
+        user.setUserpass("foo");
+        user.setSalt("foo");
+        user.setRegistered(new Date());
+        user._save();
+        commit();
+        assertEquals(0, CacheUtils.getUserVersion("version@rudeltippen.de"));
+        assertEquals(0, CacheUtils.getUserVersion("unknown"));
+
+        CacheUtils.bumpUserVersion(user);
+        commit();
+        assertTrue(CacheUtils.getUserVersion("version") > 0);
+        assertEquals(CacheUtils.getUserVersion("version"), CacheUtils.getUserVersion("version@rudeltippen.de"));
+        assertEquals(0, DataVersion.count("name LIKE ?", "userVersion-%"));
+
+        user._delete();
+        commit();
+    }
+
+    @Test
+    public void testFragmentKey() {
+        final String key = CacheUtils.getFragmentKey("standings");
+        assertNull(CacheUtils.getFragment(key + "-foo"));
+
+        CacheUtils.bumpDataVersion();
+        commit();
+        assertFalse(key.equals(CacheUtils.getFragmentKey("standings")));
+    }
+
+    @Test
+    public void testRenderFragment() {
+        final String key = CacheUtils.getFragmentKey("topthree");
+        final Map<String, Object> args = new HashMap<String, Object>();
+        args.put("topUsers", new ArrayList<Object>());
+
+        final String html = CacheUtils.renderFragment(key, "Application/topThree.html", args);
+        assertNotNull(html);
+        assertEquals(html, CacheUtils.getFragment(key));
+    }
+
+    private static void commit() {
+        JPA.em().getTransaction().commit();
+        JPA.em().getTransaction().begin();
+    }
+}
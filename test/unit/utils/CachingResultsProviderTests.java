@@ -0,0 +1,127 @@
+package unit.utils;
+
+import interfaces.ResultsProvider;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import models.WSMatch;
+import models.WSResults;
+
+import org.junit.Test;
+
+import play.test.UnitTest;
+import providers.CachingResultsProvider;
+
+public class CachingResultsProviderTests extends UnitTest {
+
+    @Test
+    public void testResultsWithinFreshnessWindow() throws Exception {
+        final CountingProvider upstream = new CountingProvider();
+        final CachingResultsProvider cache = new CachingResultsProvider(upstream, 10, 60000, 60000);
+
+        cache.getResults("23711");
+        cache.getResults("23711");
+        cache.getResults("23713");
+        assertEquals(2, upstream.requests);
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(33, cache.getHitRatio());
+        assertEquals(2, cache.getSize());
+
+        cache.clear();
+        cache.getResults("23711");
+        assertEquals(3, upstream.requests);
+    }
+
+    @Test
+    public void testExpiredResults() throws Exception {
+        final CountingProvider upstream = new CountingProvider();
+        final CachingResultsProvider cache = new CachingResultsProvider(upstream, 10, 1, 60000);
+
+        cache.getResults("23711");
+        Thread.sleep(5);
+        cache.getResults("23711");
+        assertEquals(2, upstream.requests);
+        assertEquals(0, cache.getHitRatio());
+    }
+
+    @Test
+    public void testBounded() throws Exception {
+        final CountingProvider upstream = new CountingProvider();
+        final CachingResultsProvider cache = new CachingResultsProvider(upstream, 2, 60000, 60000);
+
+        cache.getKickoff("1");
+        cache.getKickoff("2");
+        cache.getKickoff("3");
+        assertEquals(2, cache.getSize());
+        cache.getKickoff("1");
+        assertEquals(4, upstream.requests);
+    }
+
+    @Test
+    public void testKickoffsRevalidatedWithLastChange() throws Exception {
+        final CountingProvider upstream = new CountingProvider();
+        final CachingResultsProvider cache = new CachingResultsProvider(upstream, 10, 60000, 1);
+
+        cache.getKickoffs(1, "bl1", "2013");
+        assertEquals(1, upstream.requests);
+        assertEquals(0, upstream.lastChanges);
+
+        Thread.sleep(5);
+        cache.getKickoffs(1, "bl1", "2013");
+        assertEquals(2, upstream.requests);
+        assertEquals(1, upstream.lastChanges);
+
+        Thread.sleep(5);
+        cache.getKickoffs(1, "bl1", "2013");
+        assertEquals(2, upstream.requests);
+        assertEquals(1, cache.getRevalidations());
+
+        upstream.lastChange = new Date(upstream.lastChange.getTime() + 1000);
+        Thread.sleep(5);
+        cache.getKickoffs(1, "bl1", "2013");
+        assertEquals(3, upstream.requests);
+    }
+
+    private static class CountingProvider implements ResultsProvider {
+        private int requests;
+        private int lastChanges;
+        private Date lastChange = new Date(1376302500000L);
+
+        @Override
+        public WSResults getResults(final String matchID) {
+            this.requests++;
+            final WSResults wsResults = new WSResults();
+            wsResults.setUpdated(false);
+            return wsResults;
+        }
+
+        @Override
+        public Date getKickoff(final String matchID) {
+            this.requests++;
+            return new Date();
+        }
+
+        @Override
+        public Map<String, Date> getKickoffs(final int playday, final String leagueShortcut, final String leagueSaison) {
+            this.requests++;
+            return new HashMap<String, Date>();
+        }
+
+        @Override
+        public List<WSMatch> getMatches(final int playday, final String leagueShortcut, final String leagueSaison) {
+            this.requests++;
+            return new ArrayList<WSMatch>();
+        }
+
+        @Override
+        public Date getLastChange(final int playday, final String leagueShortcut, final String leagueSaison) {
+            this.lastChanges++;
+            return this.lastChange;
+        }
+    }
+}
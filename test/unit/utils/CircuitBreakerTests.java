@@ -0,0 +1,132 @@
+package unit.utils;
+
+import interfaces.ResultsProvider;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import models.WSMatch;
+import models.WSResults;
+
+import org.junit.Test;
+
+import play.test.UnitTest;
+import providers.CachingResultsProvider;
+import providers.CircuitBreakerResultsProvider;
+import utils.AlertUtils;
+import utils.CircuitBreaker;
+
+public class CircuitBreakerTests extends UnitTest {
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() {
+        final CircuitBreaker breaker = new CircuitBreaker(3, 60000);
+        assertTrue(breaker.allowRequest(0));
+        assertFalse(breaker.failure(0));
+        assertFalse(breaker.failure(0));
+        assertFalse(breaker.success());
+        assertFalse(breaker.failure(0));
+        assertFalse(breaker.failure(0));
+        assertTrue(breaker.failure(1000));
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertTrue(breaker.isOpen(1000));
+        assertFalse(breaker.allowRequest(30000));
+    }
+
+    @Test
+    public void testSingleProbeWhenHalfOpen() {
+        final CircuitBreaker breaker = new CircuitBreaker(1, 60000);
+        assertTrue(breaker.failure(0));
+
+        assertFalse(breaker.isOpen(60000));
+        assertTrue(breaker.allowRequest(60000));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest(60000));
+
+        assertTrue(breaker.success());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest(60000));
+    }
+
+    @Test
+    public void testFailedProbeOpensAgain() {
+        final CircuitBreaker breaker = new CircuitBreaker(5, 60000);
+        for (int i = 0; i < 5; i++) {
+            breaker.failure(0);
+        }
+
+        assertTrue(breaker.allowRequest(60000));
+        assertTrue(breaker.failure(60000));
+        assertTrue(breaker.isOpen(119999));
+        assertFalse(breaker.allowRequest(119999));
+        assertTrue(breaker.allowRequest(120000));
+    }
+
+    @Test
+    public void testCacheHitsDoNotCount() throws Exception {
+        final CircuitBreaker breaker = new CircuitBreaker(2, 60000);
+        final FailingProvider upstream = new FailingProvider();
+        final CachingResultsProvider cache = new CachingResultsProvider(new CircuitBreakerResultsProvider(upstream, breaker), 10, 60000, 60000);
+        try {
+            assertNotNull(cache.getResults("23711"));
+            assertFailure(cache, "1");
+            assertNotNull(cache.getResults("23711"));
+            assertFailure(cache, "2");
+            assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+            assertEquals(3, upstream.requests);
+
+            assertNotNull(cache.getResults("23711"));
+            assertNull(cache.getResults("3"));
+            assertEquals(3, upstream.requests);
+        } finally {
+            AlertUtils.clear();
+        }
+    }
+
+    private static void assertFailure(final ResultsProvider provider, final String matchID) {
+        try {
+            provider.getResults(matchID);
+            fail("Expected the request for match " + matchID + " to fail");
+        } catch (final Exception e) {
+            assertTrue(e instanceof IllegalStateException);
+        }
+    }
+
+    private static class FailingProvider implements ResultsProvider {
+        private int requests;
+
+        @Override
+        public WSResults getResults(final String matchID) {
+            this.requests++;
+            if (!"23711".equals(matchID)) {
+                throw new IllegalStateException("WebService returned status 503");
+            }
+
+            final WSResults wsResults = new WSResults();
+            wsResults.setUpdated(false);
+            return wsResults;
+        }
+
+        @Override
+        public Date getKickoff(final String matchID) {
+            return null;
+        }
+
+        @Override
+        public Map<String, Date> getKickoffs(final int playday, final String leagueShortcut, final String leagueSaison) {
+            return null;
+        }
+
+        @Override
+        public List<WSMatch> getMatches(final int playday, final String leagueShortcut, final String leagueSaison) {
+            return null;
+        }
+
+        @Override
+        public Date getLastChange(final int playday, final String leagueShortcut, final String leagueSaison) {
+            return null;
+        }
+    }
+}
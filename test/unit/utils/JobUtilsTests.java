@@ -0,0 +1,82 @@
+package unit.utils;
+
+import java.util.List;
+
+import models.JobStatistic;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+
+import play.Play;
+import play.test.UnitTest;
+import utils.JobUtils;
+
+public class JobUtilsTests extends UnitTest {
+
+    @Test
+    public void testPercentile() {
+        final long[] durations = new long[100];
+        for (int i = 0; i < durations.length; i++) {
+            durations[i] = i + 1;
+        }
+
+        assertEquals(50, JobUtils.getPercentile(durations, 50));
+        assertEquals(90, JobUtils.getPercentile(durations, 90));
+        assertEquals(99, JobUtils.getPercentile(durations, 99));
+        assertEquals(7, JobUtils.getPercentile(new long[] {7}, 99));
+        assertEquals(0, JobUtils.getPercentile(new long[0], 50));
+    }
+
+    @Test
+    public void testStatistics() {
+        final long now = System.currentTimeMillis();
+        JobUtils.record("StatisticsTestJob", now - 5000, now - 4000, 3, null);
+        JobUtils.record("StatisticsTestJob", now - 4500, now - 2000, 2, "java.lang.IllegalStateException");
+        JobUtils.record("OtherTestJob", now - 1000, now - 900, 10, null);
+
+        JobStatistic results = null;
+        final List<JobStatistic> statistics = JobUtils.getStatistics();
+        for (final JobStatistic statistic : statistics) {
+            if ("StatisticsTestJob".equals(statistic.getName())) {
+                results = statistic;
+            }
+        }
+
+        assertNotNull(results);
+        assertEquals(2, results.getRuns());
+        assertEquals(1, results.getErrors());
+        assertEquals(1, results.getOverlaps());
+        assertEquals(5, results.getItems());
+        assertEquals(1000, results.getP50());
+        assertEquals(2500, results.getMax());
+        assertEquals(JobUtils.getNodeId(), results.getLastNode());
+    }
+
+    @Test
+    public void testStatisticsSample() {
+        final String sample = Play.configuration.getProperty("app.jobs.sample");
+        Play.configuration.setProperty("app.jobs.sample", "2");
+        try {
+            final long now = System.currentTimeMillis();
+            JobUtils.record("SampleTestJob", now - 9000, now - 1000, 1, null);
+            JobUtils.record("SampleTestJob", now - 900, now - 800, 1, null);
+            JobUtils.record("SampleTestJob", now - 700, now - 500, 1, null);
+
+            JobStatistic results = null;
+            for (final JobStatistic statistic : JobUtils.getStatistics()) {
+                if ("SampleTestJob".equals(statistic.getName())) {
+                    results = statistic;
+                }
+            }
+
+            assertNotNull(results);
+            assertEquals(3, results.getRuns());
+            assertEquals(3, results.getItems());
+            assertEquals(0, results.getOverlaps());
+            assertEquals(200, results.getP99());
+            assertEquals(8000, results.getMax());
+        } finally {
+            Play.configuration.setProperty("app.jobs.sample", StringUtils.defaultString(sample));
+        }
+    }
+}
@@ -1,13 +1,17 @@
 	package unit.utils;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import notifiers.Mails;
 
 import org.junit.Test;
 
 import play.test.UnitTest;
+import utils.MailUtils;
 import models.ConfirmationType;
 import models.Extra;
 import models.Game;
@@ -68,6 +72,28 @@ public class MailUtilsTests extends UnitTest {
 		Mails.gametips(user, games);
 	}
 	
+	@Test
+	public void testEnvelope() {
+		final Map<String, Object> args = new HashMap<String, Object>();
+		args.put("games", new ArrayList<Game>());
+		final String[] envelope = MailUtils.renderEnvelope("Mails/gametips.html", args);
+		final String html = MailUtils.getEnvelope("<foo>", envelope);
+		assertTrue(html.startsWith("<!DOCTYPE html>"));
+		assertTrue(html.contains("&lt;foo&gt;!</p>"));
+		assertEquals(html.replace("&lt;foo&gt;", "bar"), MailUtils.getEnvelope("bar", envelope));
+	}
+
+	@Test
+	public void testSendHtml() {
+		Map<String, String> recipients = new LinkedHashMap<String, String>();
+		recipients.put("sk@svenkubiak.de", "foo");
+		recipients.put("sk@svenkubiak.com", "bar");
+
+		final String[] envelope = new String[] {"<p>Hello ", "!</p>"};
+		assertEquals(2, MailUtils.sendHtml("foo", envelope, recipients));
+		assertEquals(0, MailUtils.sendHtml("foo", envelope, new LinkedHashMap<String, String>()));
+	}
+
 	@Test
 	public void testSendRudelmail() {
 		Object [] recipients = new Object [1];
@@ -0,0 +1,74 @@
+package unit.utils;
+
+import models.User;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Test;
+
+import play.test.UnitTest;
+import utils.AppUtils;
+import utils.PasswordUtils;
+
+public class PasswordUtilsTests extends UnitTest {
+
+    @Test
+    public void testHashAndVerify() {
+        final User user = new User();
+        user.setSalt("foo");
+        user.setUserpass(PasswordUtils.hash("user22", "foo"));
+
+        assertTrue(user.getUserpass().startsWith("$pbkdf2-sha1$"));
+        assertTrue(PasswordUtils.verify("user22", user));
+        assertFalse(PasswordUtils.verify("user23", user));
+        assertFalse(PasswordUtils.needsRehash(user.getUserpass()));
+    }
+
+    @Test
+    public void testVerifyLegacy() {
+        final User user = new User();
+        user.setSalt("foo");
+        user.setUserpass(AppUtils.hashPassword("user22", "foo"));
+
+        assertTrue(PasswordUtils.verify("user22", user));
+        assertFalse(PasswordUtils.verify("user23", user));
+        assertTrue(PasswordUtils.needsRehash(user.getUserpass()));
+    }
+
+    @Test
+    public void testHashPasswordMatchesLegacy() {
+        final String salt = AppUtils.getSettings().getAppSalt();
+        assertEquals(legacyHashPassword("user22", "foo", salt), AppUtils.hashPassword("user22", "foo"));
+        assertEquals(legacyHashPassword("pässwörd", "bar", salt), AppUtils.hashPassword("pässwörd", "bar"));
+    }
+
+    @Test
+    public void testNeedsRehash() {
+        assertTrue(PasswordUtils.needsRehash(null));
+        assertTrue(PasswordUtils.needsRehash("$pbkdf2-sha1$1$abcdef"));
+
+        final User user = new User();
+        user.setSalt("foo");
+        user.setUserpass("$pbkdf2-sha1$foo$abcdef");
+        assertFalse(PasswordUtils.verify("user22", user));
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        final User user = new User();
+        user.setSalt("foo");
+        user.setUserpass(PasswordUtils.hashAsync("user22", "foo").get());
+
+        assertTrue(PasswordUtils.verifyAsync("user22", user).get());
+        assertFalse(PasswordUtils.verifyAsync("user23", user).get());
+        assertEquals(0, PasswordUtils.getQueueSize());
+    }
+
+    private static String legacyHashPassword(final String userpass, final String usersalt, final String salt) {
+        String hash = "";
+        for (int i = 1; i <= AppUtils.getPasswordRounds(); i++) {
+            hash = DigestUtils.sha512Hex(hash + salt + userpass + usersalt);
+        }
+
+        return hash;
+    }
+}
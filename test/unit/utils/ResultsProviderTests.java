@@ -0,0 +1,92 @@
+package unit.utils;
+
+import interfaces.ResultsProvider;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import models.WSMatch;
+import models.WSResults;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import play.Play;
+import play.test.UnitTest;
+import providers.JsonResultsProvider;
+import providers.SoapResultsProvider;
+import providers.StubServer;
+import utils.WSUtils;
+
+public class ResultsProviderTests extends UnitTest {
+    private StubServer stubServer;
+
+    @Before
+    public void init() throws Exception {
+        this.stubServer = new StubServer(Play.getFile("test/fixtures/ws"), 0, 0);
+        this.stubServer.start(0);
+    }
+
+    @After
+    public void shutdown() {
+        WSUtils.setProvider(null);
+        this.stubServer.stop();
+    }
+
+    @Test
+    public void testSoapProvider() throws Exception {
+        assertProvider(new SoapResultsProvider(this.stubServer.getUrl()));
+    }
+
+    @Test
+    public void testJsonProvider() throws Exception {
+        assertProvider(new JsonResultsProvider(this.stubServer.getUrl()));
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        this.stubServer.stop();
+        this.stubServer = new StubServer(Play.getFile("test/fixtures/ws"), 0, 1.0);
+        this.stubServer.start(0);
+        WSUtils.setProvider(new SoapResultsProvider(this.stubServer.getUrl()));
+
+        final Map<String, WSResults> results = WSUtils.getResultsFromWebService(Arrays.asList("23711", "23713"), 5000);
+        assertTrue(results.isEmpty());
+        assertEquals(2, this.stubServer.getErrors());
+        assertTrue(WSUtils.getKickoffs(1, "bl1", "2013").isEmpty());
+    }
+
+    private static void assertProvider(final ResultsProvider provider) throws Exception {
+        final WSResults penalties = provider.getResults("19218");
+        assertTrue(penalties.isUpdated());
+        assertEquals("0", penalties.getWsResult().get("90").getHomeScore());
+        assertEquals("0", penalties.getWsResult().get("120").getAwayScore());
+        assertEquals("3", penalties.getWsResult().get("121").getHomeScore());
+        assertEquals("4", penalties.getWsResult().get("121").getAwayScore());
+
+        final WSResults regular = provider.getResults("23711");
+        assertTrue(regular.isUpdated());
+        assertEquals(1, regular.getWsResult().size());
+        assertEquals("3", regular.getWsResult().get("90").getHomeScore());
+        assertEquals("1", regular.getWsResult().get("90").getAwayScore());
+
+        assertEquals(1376073000000L, provider.getKickoff("23711").getTime());
+
+        final Map<String, Date> kickoffs = provider.getKickoffs(1, "bl1", "2013");
+        assertEquals(2, kickoffs.size());
+        assertEquals(1376141400000L, kickoffs.get("23713").getTime());
+
+        final List<WSMatch> matches = provider.getMatches(1, "bl1", "2013");
+        assertEquals(2, matches.size());
+        assertEquals("23711", matches.get(0).getMatchID());
+        assertEquals("40", matches.get(0).getHomeTeamID());
+        assertEquals("87", matches.get(0).getAwayTeamID());
+        assertEquals(1376073000000L, matches.get(0).getKickoff().getTime());
+        assertFalse(matches.get(0).isFinished());
+
+        assertEquals(1376302500000L, provider.getLastChange(1, "bl1", "2013").getTime());
+    }
+}
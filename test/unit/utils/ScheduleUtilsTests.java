@@ -0,0 +1,60 @@
+package unit.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import play.db.jpa.JPA;
+import play.test.Fixtures;
+import play.test.UnitTest;
+import utils.CacheUtils;
+import utils.ScheduleUtils;
+
+public class ScheduleUtilsTests extends UnitTest {
+    private static final long MINUTE = 60000L;
+    private static final long BEFORE_SEASON = 1356998400000L;
+    private static final long AFTER_SEASON = 4102444800000L;
+
+    @Before
+    public void init() {
+        Fixtures.deleteDatabase();
+        Fixtures.loadModels("bl2013.test.yml");
+        ScheduleUtils.invalidate();
+    }
+
+    @Test
+    public void testBeforeKickoff() {
+        assertFalse(ScheduleUtils.isResultsDue(BEFORE_SEASON));
+        assertFalse(ScheduleUtils.isGameTipsDue(BEFORE_SEASON));
+        assertTrue(ScheduleUtils.getNextRun(BEFORE_SEASON) > BEFORE_SEASON);
+    }
+
+    @Test
+    public void testBackoff() {
+        long now = AFTER_SEASON;
+        assertTrue(ScheduleUtils.isGameTipsDue(now));
+        assertTrue(ScheduleUtils.isResultsDue(now));
+
+        ScheduleUtils.resultsPolled(now, false);
+        assertFalse(ScheduleUtils.isResultsDue(now + MINUTE));
+        assertTrue(ScheduleUtils.isResultsDue(now + (2 * MINUTE)));
+
+        now = now + (2 * MINUTE);
+        ScheduleUtils.resultsPolled(now, false);
+        assertFalse(ScheduleUtils.isResultsDue(now + (3 * MINUTE)));
+        assertTrue(ScheduleUtils.isResultsDue(now + (4 * MINUTE)));
+    }
+
+    @Test
+    public void testScheduleVersion() {
+        final long now = AFTER_SEASON;
+        assertTrue(ScheduleUtils.isResultsDue(now));
+
+        ScheduleUtils.resultsPolled(now, false);
+        assertFalse(ScheduleUtils.isResultsDue(now + MINUTE / 2));
+
+        CacheUtils.bumpScheduleVersion();
+        JPA.em().getTransaction().commit();
+        JPA.em().getTransaction().begin();
+        assertTrue(ScheduleUtils.isResultsDue(now + MINUTE / 2));
+    }
+}
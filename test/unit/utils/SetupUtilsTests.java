@@ -0,0 +1,78 @@
+package unit.utils;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+
+import models.Game;
+import models.WSMatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import play.Play;
+import play.db.jpa.JPA;
+import play.test.Fixtures;
+import play.test.UnitTest;
+import providers.SoapResultsProvider;
+import providers.StubServer;
+import utils.SetupUtils;
+
+public class SetupUtilsTests extends UnitTest {
+    private StubServer stubServer;
+
+    @Before
+    public void init() throws Exception {
+        this.stubServer = new StubServer(Play.getFile("test/fixtures/ws"), 20, 0);
+        this.stubServer.start(0);
+    }
+
+    @After
+    public void shutdown() {
+        this.stubServer.stop();
+    }
+
+    @Test
+    public void testMatchesFromWebService() {
+        final Map<Integer, List<WSMatch>> matches = SetupUtils.getMatchesFromWebService(new SoapResultsProvider(this.stubServer.getUrl()), 34, "bl1", "2013");
+        assertEquals(34, matches.size());
+        assertEquals(34, this.stubServer.getRequests());
+        assertEquals(2, matches.get(1).size());
+        assertEquals("23713", matches.get(34).get(1).getMatchID());
+    }
+
+    @Test
+    public void testWriteFixtures() throws Exception {
+        final StringWriter writer = new StringWriter();
+        final int games = SetupUtils.writeFixtures(new SoapResultsProvider(this.stubServer.getUrl()), 3, "bl1", "2013", writer);
+        final String fixtures = writer.toString();
+
+        assertEquals(6, games);
+        assertTrue(fixtures.contains("models.Playday(p3):\n    name:          3spieltag\n"));
+        assertTrue(fixtures.contains("models.Game(g1):\n    number:        1\n    homeTeam:      fcb\n    awayTeam:      bmg\n    kickoff:       2013-08-09 18:30:00\n    playday:       p1\n"));
+        assertTrue(fixtures.contains("models.Game(g6):\n"));
+        assertTrue(fixtures.contains("    playday:       p3\n"));
+        assertFalse(fixtures.contains("<br />"));
+        assertTrue(fixtures.indexOf("models.Playday(p3)") < fixtures.indexOf("models.Game(g1)"));
+    }
+
+    @Test
+    public void testImportGames() {
+        Fixtures.deleteDatabase();
+        Fixtures.loadModels("bl2013.test.yml");
+        JPA.em().createQuery("UPDATE Game g SET g.webserviceID = '' WHERE g.webserviceID IN ('23711', '23713')").executeUpdate();
+        final long games = Game.count();
+
+        final SoapResultsProvider provider = new SoapResultsProvider(this.stubServer.getUrl());
+        assertEquals(2, SetupUtils.importGames(SetupUtils.getMatchesFromWebService(provider, 2, "bl1", "2013")));
+        assertEquals(games + 2, Game.count());
+
+        final Game game = Game.find("byWebserviceID", "23711").first();
+        assertEquals("fcb.png", game.getHomeTeam().getFlag());
+        assertEquals(games + 1, game.getNumber());
+
+        assertEquals(0, SetupUtils.importGames(SetupUtils.getMatchesFromWebService(provider, 2, "bl1", "2013")));
+        assertEquals(games + 2, Game.count());
+    }
+}
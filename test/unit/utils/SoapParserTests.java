@@ -0,0 +1,120 @@
+package unit.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+
+import models.WSMatch;
+import models.WSResult;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+import play.Play;
+import play.libs.XML;
+import play.test.UnitTest;
+import providers.SoapParser;
+import providers.SoapResultsProvider;
+import providers.StubServer;
+import utils.WSUtils;
+
+public class SoapParserTests extends UnitTest {
+
+    @Test
+    public void testMatchdata() throws Exception {
+        final String xml = "<GetMatchdataByGroupLeagueSaisonResult>"
+                + "<Matchdata><matchID>23711</matchID><matchDateTimeUTC>2013-08-09T18:30:00Z</matchDateTimeUTC><idTeam1>40</idTeam1><idTeam2>87</idTeam2></Matchdata>"
+                + "<Matchdata><matchID>23713</matchID><matchDateTimeUTC>2013-08-10T13:30:00Z</matchDateTimeUTC></Matchdata>"
+                + "<Matchdata><matchID>23714</matchID><matchDateTimeUTC>invalid</matchDateTimeUTC></Matchdata>"
+                + "</GetMatchdataByGroupLeagueSaisonResult>";
+
+        final List<WSMatch> matches = SoapParser.getMatches(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+        assertEquals(3, matches.size());
+        assertEquals("23711", matches.get(0).getMatchID());
+        assertEquals(1376073000000L, matches.get(0).getKickoff().getTime());
+        assertEquals("40", matches.get(0).getHomeTeamID());
+        assertEquals("87", matches.get(0).getAwayTeamID());
+        assertFalse(matches.get(0).isFinished());
+        assertEquals(1376141400000L, matches.get(1).getKickoff().getTime());
+        assertNull(matches.get(2).getKickoff());
+    }
+
+    @Test
+    public void testResults() throws Exception {
+        final List<WSMatch> matches = SoapParser.getMatches(new FileInputStream(Play.getFile("test/fixtures/ws/soap/GetMatchByMatchID/19218.xml")));
+        assertEquals(1, matches.size());
+
+        final WSMatch match = matches.get(0);
+        assertEquals("19218", match.getMatchID());
+        assertTrue(match.isFinished());
+        assertEquals(3, match.getWsResult().size());
+        assertEquals("0", match.getWsResult().get("90").getHomeScore());
+        assertEquals("0", match.getWsResult().get("120").getAwayScore());
+        assertEquals("3", match.getWsResult().get("121").getHomeScore());
+        assertEquals("4", match.getWsResult().get("121").getAwayScore());
+    }
+
+    @Test
+    public void testKickoffs() throws Exception {
+        final StubServer stubServer = new StubServer(Play.getFile("test/fixtures/ws"), 0, 0);
+        stubServer.start(0);
+        try {
+            final Map<String, Date> kickoffs = new SoapResultsProvider(stubServer.getUrl()).getKickoffs(1, "bl1", "2012");
+            assertEquals(2, kickoffs.size());
+            assertEquals(1376073000000L, kickoffs.get("23711").getTime());
+            assertEquals(1376141400000L, kickoffs.get("23713").getTime());
+            assertFalse(kickoffs.containsKey("23714"));
+            assertFalse(kickoffs.containsKey(null));
+        } finally {
+            stubServer.stop();
+        }
+    }
+
+    @Test
+    public void testResultsMatchLegacy() throws Exception {
+        final byte[] response = FileUtils.readFileToByteArray(Play.getFile("test/fixtures/ws/soap/GetMatchByMatchID/19218.xml"));
+        final Map<String, WSResult> legacy = legacyGetResults(XML.getDocument(new String(response, "UTF-8")));
+        final WSMatch match = SoapParser.getMatches(new ByteArrayInputStream(response)).get(0);
+
+        assertEquals(legacy.keySet(), match.getWsResult().keySet());
+        for (final Map.Entry<String, WSResult> entry : legacy.entrySet()) {
+            assertEquals(entry.getValue().getHomeScore(), match.getWsResult().get(entry.getKey()).getHomeScore());
+            assertEquals(entry.getValue().getAwayScore(), match.getWsResult().get(entry.getKey()).getAwayScore());
+        }
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void testInvalidResponse() throws Exception {
+        SoapParser.getMatches(new ByteArrayInputStream("<Matchdata><matchID>1".getBytes("UTF-8")));
+    }
+
+    private static Map<String, WSResult> legacyGetResults(final Document document) {
+        final Map<String, WSResult> resultsMap = new HashMap<String, WSResult>();
+        if ((document.getElementsByTagName("matchIsFinished").getLength() == 0)
+                || !"true".equalsIgnoreCase(document.getElementsByTagName("matchIsFinished").item(0).getTextContent())) {
+            return resultsMap;
+        }
+
+        final NodeList matchResult = document.getElementsByTagName("matchResults").item(0).getChildNodes();
+        for (int i = 0; i < matchResult.getLength(); i++) {
+            final NodeList singleResults = matchResult.item(i).getChildNodes();
+            final String key = WSUtils.getResultKey(singleResults.item(0).getTextContent());
+            if (StringUtils.isNotBlank(key)) {
+                final WSResult wsResult = new WSResult();
+                wsResult.setHomeScore(singleResults.item(1).getTextContent());
+                wsResult.setAwayScore(singleResults.item(2).getTextContent());
+                resultsMap.put(key, wsResult);
+            }
+        }
+
+        return resultsMap;
+    }
+}
@@ -0,0 +1,41 @@
+package unit.utils;
+
+import models.Task;
+import models.TaskType;
+import models.User;
+
+import org.junit.Test;
+
+import play.i18n.Lang;
+import play.test.UnitTest;
+import utils.TaskUtils;
+
+public class TaskUtilsTests extends UnitTest {
+
+    @Test
+    public void testDropTaskOfDeletedUser() {
+        final User user = new User();
+        user.id = Long.valueOf(Long.MAX_VALUE);
+
+        TaskUtils.gravatar(user);
+        final Task task = Task.find("byUserIdAndTaskType", Long.MAX_VALUE, TaskType.GRAVATAR).first();
+        assertNotNull(task);
+
+        assertTrue(TaskUtils.execute(task));
+        assertNull(Task.find("byUserIdAndTaskType", Long.MAX_VALUE, TaskType.GRAVATAR).first());
+    }
+
+    @Test
+    public void testRestoreLanguage() {
+        final User user = new User();
+        user.id = Long.valueOf(Long.MAX_VALUE);
+
+        Lang.set("de");
+        TaskUtils.gravatar(user);
+        final Task task = Task.find("byUserIdAndTaskType", Long.MAX_VALUE, TaskType.GRAVATAR).first();
+        task.setLanguage("en");
+
+        assertTrue(TaskUtils.execute(task));
+        assertEquals("de", Lang.get());
+    }
+}
@@ -0,0 +1,42 @@
+package unit.utils;
+
+import org.junit.Test;
+
+import play.test.UnitTest;
+import utils.ThrottleUtils;
+
+public class ThrottleUtilsTests extends UnitTest {
+
+    @Test
+    public void testUserLimit() {
+        for (int i = 0; i < 10; i++) {
+            assertFalse(ThrottleUtils.isThrottled("throttled", "10.0.0.1"));
+            ThrottleUtils.failed("throttled", "10.0.0.1");
+        }
+        assertTrue(ThrottleUtils.isThrottled("throttled", "10.0.0.1"));
+        assertTrue(ThrottleUtils.isThrottled("THROTTLED", "10.0.0.1"));
+        assertFalse(ThrottleUtils.isThrottled("throttled", "10.0.0.2"));
+
+        ThrottleUtils.reset("throttled", "10.0.0.1");
+        assertFalse(ThrottleUtils.isThrottled("throttled", "10.0.0.1"));
+    }
+
+    @Test
+    public void testAddressLimit() {
+        for (int i = 0; i < 30; i++) {
+            assertFalse(ThrottleUtils.isThrottled("user" + i, "10.0.1.1"));
+            ThrottleUtils.failed("user" + i, "10.0.1.1");
+        }
+        assertTrue(ThrottleUtils.isThrottled("user99", "10.0.1.1"));
+        assertFalse(ThrottleUtils.isThrottled("user99", "10.0.1.2"));
+    }
+
+    @Test
+    public void testRejectedAttemptsNotCounted() {
+        for (int i = 0; i < 50; i++) {
+            ThrottleUtils.isThrottled("rejected", "10.0.2.1");
+        }
+        assertFalse(ThrottleUtils.isThrottled("rejected", "10.0.2.1"));
+        assertFalse(ThrottleUtils.isThrottled("other", "10.0.2.1"));
+    }
+}
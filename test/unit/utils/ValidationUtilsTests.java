@@ -81,6 +81,12 @@ public class ValidationUtilsTests extends UnitTest {
         assertTrue(ValidationUtils.usernameExists("user5"));
     }
     
+    @Test
+    public void testEmailHash() {
+        assertEquals(ValidationUtils.getEmailHash("user1@rudeltippen.de"), ValidationUtils.getEmailHash(" User1@Rudeltippen.de "));
+        assertFalse(ValidationUtils.getEmailHash("user1@rudeltippen.de").equals(ValidationUtils.getEmailHash("user2@rudeltippen.de")));
+    }
+
     @Test
     public void testChechFileLength() {
         final long maxSize = 102400;
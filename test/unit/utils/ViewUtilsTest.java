@@ -49,4 +49,21 @@ public class ViewUtilsTest extends UnitTest {
         assertNotNull(ViewUtils.difference(new Date()));
         assertNotNull(ViewUtils.formatted(new Date()));    	
     }
+
+    @Test
+    public void testCursor() {
+        final User user = new User();
+        user.id = Long.valueOf(42);
+        user.setPlace(3);
+
+        final long[] position = ViewUtils.parseCursor(ViewUtils.getCursor(user, 4711));
+        assertNotNull(position);
+        assertEquals(4711, position[0]);
+        assertEquals(3, position[1]);
+        assertEquals(42, position[2]);
+
+        assertEquals("", ViewUtils.getCursor(null, 4711));
+        assertNull(ViewUtils.parseCursor("foo"));
+        assertNull(ViewUtils.parseCursor(null));
+    }
 }
\ No newline at end of file
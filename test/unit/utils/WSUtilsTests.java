@@ -8,8 +8,10 @@ import models.Game;
 import models.WSResult;
 import models.WSResults;
 
+import org.apache.commons.lang.StringUtils;
 import org.junit.Test;
 
+import play.Play;
 import play.test.UnitTest;
 
 import utils.WSUtils;
@@ -35,4 +37,24 @@ public class WSUtilsTests extends UnitTest {
         assertEquals(wsResult.get("121").getHomeScore(), "3");
         assertEquals(wsResult.get("121").getAwayScore(), "4");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLeagueAndSeason() {
+        final String league = Play.configuration.getProperty("app.ws.league");
+        final String season = Play.configuration.getProperty("app.ws.season");
+        try {
+            Play.configuration.setProperty("app.ws.league", "");
+            Play.configuration.setProperty("app.ws.season", " ");
+            assertEquals("WM-2014", WSUtils.getLeague());
+            assertEquals("2014", WSUtils.getSeason());
+
+            Play.configuration.setProperty("app.ws.league", " bl1 ");
+            Play.configuration.setProperty("app.ws.season", "2013");
+            assertEquals("bl1", WSUtils.getLeague());
+            assertEquals("2013", WSUtils.getSeason());
+        } finally {
+            Play.configuration.setProperty("app.ws.league", StringUtils.defaultString(league));
+            Play.configuration.setProperty("app.ws.season", StringUtils.defaultString(season));
+        }
+    }
+}